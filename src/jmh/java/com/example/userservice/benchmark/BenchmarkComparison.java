@@ -0,0 +1,58 @@
+package com.example.userservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Prints the change of every benchmark between two JMH JSON result files, e.g. from two commits
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> candidate = load(new File(args[1]));
+
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        candidate.forEach((name, result) -> {
+            JsonNode before = baseline.get(name);
+            double score = result.path("primaryMetric").path("score").asDouble();
+            String unit = result.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", name, "-", score, "new", unit);
+                return;
+            }
+
+            double baseScore = before.path("primaryMetric").path("score").asDouble();
+            double baseError = before.path("primaryMetric").path("scoreError").asDouble();
+            double error = result.path("primaryMetric").path("scoreError").asDouble();
+            double change = baseScore == 0 ? 0 : (score - baseScore) / baseScore * 100;
+            // Differences inside the combined error margins are reported as noise
+            String verdict = Math.abs(score - baseScore) <= baseError + error ? "~" : "";
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s  %s%n", name, baseScore, score, change, verdict, unit);
+        });
+    }
+
+    // Index results by benchmark name, mode and parameters
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                    .append(" [").append(result.path("mode").asText()).append(']');
+            result.path("params").fields().forEachRemaining(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
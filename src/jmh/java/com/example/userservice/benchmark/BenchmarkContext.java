@@ -0,0 +1,24 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.UserServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Starts the application without a web server, on a private H2 database, for benchmarks that need the real beans
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName) {
+        return new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + databaseName,
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+    }
+}
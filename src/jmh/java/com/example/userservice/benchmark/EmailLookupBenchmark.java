@@ -0,0 +1,98 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.user.dto.UserView;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Lookup by email as the table grows: the indexed normalized key used by the repository, against the
+// case-insensitive scan (lower(email) = ?) it replaces. The indexed lookup should stay flat while the scan grows linearly.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailLookupBenchmark {
+
+    private static final long FIRST_GENERATED_ID = 10_000_000L; // Far above the ids handed out by the sequence
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("emailLookupBenchmark" + rows);
+        userRepository = context.getBean(UserRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        // Generate the table directly over JDBC, much faster than going through the entity layer
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            String email = "Lookup" + i + "@Email.com";
+            batch.add(new Object[]{FIRST_GENERATED_ID + i, email, Users.normalizeEmail(email), "somePassword1", "Look", "Up"});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        insert(batch);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Users> findByEmailKey() {
+        return userRepository.findByEmail(randomEmail());
+    }
+
+    // The same indexed lookup selecting only the public columns, as the GET endpoint reads users
+    @Benchmark
+    public Optional<UserView> findViewByEmailKey() {
+        return userRepository.findViewByEmail(randomEmail());
+    }
+
+    @Benchmark
+    public Long findByLowerEmailScan() {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select id from \"user\" where lower(email) = lower(?)", Long.class, randomEmail());
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    // A registered email in the case a client might send it
+    private String randomEmail() {
+        return "LOOKUP" + ThreadLocalRandom.current().nextInt(rows) + "@email.COM";
+    }
+
+    private void insert(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate(
+                "insert into \"user\" (id, email, email_key, password, first_name, last_name) values (?, ?, ?, ?, ?, ?)", batch);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.UserServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop HTTP load test for GET /users/{email} and POST /users, reporting throughput and latency percentiles.
+// Without --url it starts the application in-process on a random port, once with platform request threads and,
+// on Java 21+, once more with the virtual-threads profile, so both modes are measured on the same machine.
+// When built with the reactive profile, the WebFlux/R2DBC variant is started and loaded the same way, side by side.
+// The in-process runs turn the adaptive concurrency limit off, so the thread models are compared on the requests they
+// serve rather than on how many the limiter sheds with 503; pass --userservice.concurrency-limit.enabled=true to keep it.
+//
+// Usage: LoadTest [--url=http://localhost:8080] [--concurrency=400] [--duration=20] [--warmup=5] [--spring.*=...]
+//                 [--userservice.*=...]
+public final class LoadTest {
+
+    private static final String BASE_PATH = "/api/v1/userservice/users";
+    private static final String GET_EMAIL = "hedlund.thomas@email.com"; // Seeded at startup by UserConfig
+    private static final String REACTIVE_APPLICATION = "com.example.userservice.reactive.ReactiveUserServiceApplication";
+    private static final AtomicLong EMAIL_SEQUENCE = new AtomicLong();
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = option(args, "url", null);
+        int concurrency = Integer.parseInt(option(args, "concurrency", "400"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(option(args, "duration", "20")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(option(args, "warmup", "5")));
+        String[] springArgs = Arrays.stream(args)
+                .filter(arg -> arg.startsWith("--spring.") || arg.startsWith("--userservice."))
+                .toArray(String[]::new);
+
+        System.out.printf("%-10s %-8s %10s %12s %10s %10s %10s %8s%n",
+                "Mode", "Endpoint", "Requests", "Throughput", "p50 ms", "p99 ms", "max ms", "Errors");
+        if (url != null) {
+            run("external", url, concurrency, warmup, duration);
+            return;
+        }
+
+        runInProcess("platform", UserServiceApplication.class, springArgs, concurrency, warmup, duration);
+        if (Runtime.version().feature() >= 21) {
+            String[] virtualArgs = Arrays.copyOf(springArgs, springArgs.length + 1);
+            virtualArgs[springArgs.length] = "--spring.profiles.active=virtual-threads";
+            runInProcess("virtual", UserServiceApplication.class, virtualArgs, concurrency, warmup, duration);
+        } else {
+            System.out.println("Virtual threads need Java 21, skipping (running on Java " + Runtime.version().feature() + ")");
+        }
+        Class<?> reactiveApplication = reactiveApplication();
+        if (reactiveApplication != null) {
+            runInProcess("reactive", reactiveApplication, springArgs, concurrency, warmup, duration);
+        }
+    }
+
+    // The reactive application is only compiled with the reactive profile
+    private static Class<?> reactiveApplication() {
+        try {
+            return Class.forName(REACTIVE_APPLICATION);
+        } catch (ClassNotFoundException e) {
+            System.out.println("Reactive variant not built, skipping (add -Preactive)");
+            return null;
+        }
+    }
+
+    // Start the application on a random port and a private database, load it, then shut it down
+    private static void runInProcess(String mode, Class<?> application, String[] springArgs, int concurrency, Duration warmup, Duration duration) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(application);
+        if (application != UserServiceApplication.class) {
+            builder.profiles("reactive");
+        }
+        try (ConfigurableApplicationContext context = builder
+                .logStartupInfo(false)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode,
+                        "spring.r2dbc.url=r2dbc:h2:mem:///load-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "spring.h2.console.enabled=false",
+                        "userservice.concurrency-limit.enabled=false", // Default properties: the forwarded arguments override them
+                        "logging.level.root=WARN")
+                .run(springArgs)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            run(mode, "http://localhost:" + port, concurrency, warmup, duration);
+        }
+    }
+
+    private static void run(String mode, String url, int concurrency, Duration warmup, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest get = HttpRequest.newBuilder(URI.create(url + BASE_PATH + "/" + GET_EMAIL)).GET().build();
+
+        Scenario getScenario = () -> get;
+        Scenario postScenario = () -> HttpRequest.newBuilder(URI.create(url + BASE_PATH))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("""
+                        {"firstName":"Load","lastName":"Test","email":"load%d@email.com","password":"somePassword1"}"""
+                        .formatted(EMAIL_SEQUENCE.incrementAndGet())))
+                .build();
+
+        load(client, getScenario, concurrency, warmup);
+        load(client, getScenario, concurrency, duration).print(mode, "GET");
+        load(client, postScenario, concurrency, warmup);
+        load(client, postScenario, concurrency, duration).print(mode, "POST");
+    }
+
+    // Keep `concurrency` requests in flight for the given time, each client sending its next request as soon as the last one returns
+    private static Result load(HttpClient client, Scenario scenario, int concurrency, Duration duration) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Recorder>> futures = new ArrayList<>(concurrency);
+        long[] deadline = new long[1];
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(clients.submit(() -> {
+                Recorder recorder = new Recorder();
+                startGate.await();
+                while (System.nanoTime() < deadline[0]) {
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(scenario.next(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    }
+                    recorder.record(System.nanoTime() - start, status >= 200 && status < 300);
+                }
+                return recorder;
+            }));
+        }
+
+        long start = System.nanoTime();
+        deadline[0] = start + duration.toNanos();
+        startGate.countDown();
+        Recorder total = new Recorder();
+        for (Future<Recorder> future : futures) {
+            total.merge(future.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+        return new Result(total, elapsed);
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        return Arrays.stream(args)
+                .filter(arg -> arg.startsWith(prefix))
+                .map(arg -> arg.substring(prefix.length()))
+                .findFirst()
+                .orElse(defaultValue);
+    }
+
+    @FunctionalInterface
+    private interface Scenario {
+        HttpRequest next();
+    }
+
+    // Latencies of successful requests in nanoseconds, plus the number of failed ones
+    private static final class Recorder {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long nanos, boolean success) {
+            if (!success) {
+                errors++;
+                return;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void merge(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+    }
+
+    private record Result(Recorder recorder, long elapsedNanos) {
+
+        void print(String mode, String endpoint) {
+            long[] sorted = Arrays.copyOf(recorder.latencies, recorder.count);
+            Arrays.sort(sorted);
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("%-10s %-8s %10d %10.0f/s %10.2f %10.2f %10.2f %8d%n",
+                    mode, endpoint, sorted.length, sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6, recorder.errors);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
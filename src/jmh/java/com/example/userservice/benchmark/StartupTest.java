@@ -0,0 +1,131 @@
+package com.example.userservice.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Time to first request: starts the extracted application jar in a fresh JVM, polls GET /users until it answers 200
+// and stops the process, several times per mode. Modes add the cold start measures one at a time: the default
+// configuration, the fast-startup Spring profile (no seeding, no bcrypt calibration, no H2 console), Spring AOT, and
+// the class data sharing archive. Needs the jar and archive built by the fast-startup profile (target/application).
+//
+// Usage: StartupTest [--application=target/application] [--runs=5] [--timeout=60]
+public final class StartupTest {
+
+    private static final String PATH = "/api/v1/userservice/users?size=1";
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(5);
+
+    private StartupTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path application = Path.of(option(args, "application", "target/application"));
+        int runs = Integer.parseInt(option(args, "runs", "5"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(option(args, "timeout", "60")));
+        Path jar = applicationJar(application);
+        Path archive = application.resolve("application.jsa");
+
+        List<Mode> modes = new ArrayList<>(List.of(
+                new Mode("default"),
+                new Mode("profile", "-Dspring.profiles.active=fast-startup"),
+                new Mode("aot", "-Dspring.profiles.active=fast-startup", "-Dspring.aot.enabled=true")));
+        if (Files.exists(archive)) {
+            modes.add(new Mode("aot+cds", "-Dspring.profiles.active=fast-startup", "-Dspring.aot.enabled=true",
+                    "-XX:SharedArchiveFile=" + archive));
+        } else {
+            System.out.println("No class data sharing archive at " + archive + ", skipping (build with -Pfast-startup)");
+        }
+
+        System.out.printf("%-10s %6s %10s %10s %10s%n", "Mode", "Runs", "min ms", "median ms", "max ms");
+        for (Mode mode : modes) {
+            long[] millis = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                millis[i] = timeToFirstRequest(mode, jar, timeout);
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-10s %6d %10d %10d %10d%n", mode.name(), runs, millis[0], millis[runs / 2], millis[runs - 1]);
+        }
+    }
+
+    // From launching the JVM to the first successful response, in milliseconds
+    private static long timeToFirstRequest(Mode mode, Path jar, Duration timeout) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(mode.jvmArguments());
+        command.addAll(List.of("-jar", jar.toString(), "--server.port=" + port, "--logging.level.root=WARN"));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + PATH)).GET().build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.name() + ": application exited with " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+            throw new IllegalStateException(mode.name() + ": no response within " + timeout);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static Path applicationJar(Path application) throws IOException {
+        File[] jars = application.toFile().listFiles((directory, name) -> name.endsWith(".jar"));
+        if (jars == null || jars.length != 1) {
+            throw new IllegalStateException("Expected the extracted application jar in " + application
+                    + ", build it with mvn -Pfast-startup package");
+        }
+        return jars[0].toPath();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        return Arrays.stream(args)
+                .filter(arg -> arg.startsWith(prefix))
+                .map(arg -> arg.substring(prefix.length()))
+                .findFirst()
+                .orElse(defaultValue);
+    }
+
+    private record Mode(String name, List<String> jvmArguments) {
+
+        Mode(String name, String... jvmArguments) {
+            this(name, List.of(jvmArguments));
+        }
+    }
+}
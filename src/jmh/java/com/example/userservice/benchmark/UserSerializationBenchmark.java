@@ -0,0 +1,129 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.user.dto.UserPage;
+import com.example.userservice.user.dto.UserView;
+import com.example.userservice.user.model.Users;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Jackson encoding and decoding of a user and of a page of users in each format the API negotiates (JSON, CBOR, Smile),
+// with the same ObjectMapper settings Spring MVC uses, and of the UserView the lookup by email returns. The encoded sizes, plain and gzipped, are printed at setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private Users user;
+    private UserView view;
+    private UserPage page;
+    private byte[] encodedUser;
+    private byte[] encodedPage;
+    private ObjectWriter writer;
+    private ObjectWriter viewWriter;
+    private ObjectReader reader;
+    private ObjectWriter pageWriter;
+    private ObjectReader pageReader;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = mapper(format);
+        writer = objectMapper.writerFor(Users.class);
+        viewWriter = objectMapper.writerFor(UserView.class);
+        reader = objectMapper.readerFor(Users.class);
+        pageWriter = objectMapper.writerFor(UserPage.class);
+        pageReader = objectMapper.readerFor(UserPage.class);
+
+        user = user(42);
+        view = UserView.of(user);
+        List<Users> users = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            users.add(user(1000 + i));
+        }
+        page = new UserPage(users, "MTA0OQ");
+
+        encodedUser = writer.writeValueAsBytes(user);
+        encodedPage = pageWriter.writeValueAsBytes(page);
+        System.out.printf("%n%s: user %d bytes, page of %d users %d bytes (%d gzipped)%n",
+                format, encodedUser.length, PAGE_SIZE, encodedPage.length, gzippedSize(encodedPage));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeView() throws IOException {
+        return viewWriter.writeValueAsBytes(view);
+    }
+
+    @Benchmark
+    public Users deserialize() throws IOException {
+        return reader.readValue(encodedUser);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public UserPage deserializePage() throws IOException {
+        return pageReader.readValue(encodedPage);
+    }
+
+    // The JSON mapper Spring MVC builds, and the binary mappers copied from it as BinaryContentConfig does
+    private static ObjectMapper mapper(String format) {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        return switch (format) {
+            case "json" -> json;
+            case "cbor" -> json.copyWith(new CBORFactory());
+            case "smile" -> json.copyWith(new SmileFactory());
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+    }
+
+    private static Users user(long id) {
+        Users user = new Users("Thomas", "Hedlund", "hedlund.thomas" + id + "@email.com", "somePassword1");
+        user.setId(id);
+        return user;
+    }
+
+    private static int gzippedSize(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.user.config.CacheConfig;
+import com.example.userservice.user.dto.UserView;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// UserService create and lookup against the H2 datasource, through the Spring proxies used in production
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final String EXISTING_EMAIL = "benchmark@email.com";
+    private static final String MISSING_EMAIL = "missing@email.com";
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private Cache cache;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("userServiceBenchmark");
+        userService = context.getBean(UserService.class);
+        cache = context.getBean(CacheManager.class).getCache(CacheConfig.USERS_BY_EMAIL);
+        userService.createUser(new Users("Bench", "Mark", EXISTING_EMAIL, "somePassword1"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String createUser() {
+        // Every invocation inserts a new row, so the table grows during the run as it does in production
+        return userService.createUser(new Users("Bench", "Mark", "bench" + sequence.incrementAndGet() + "@email.com", "somePassword1"));
+    }
+
+    @Benchmark
+    public UserView getUserByEmailCached() {
+        return userService.getUserByEmail(EXISTING_EMAIL, null);
+    }
+
+    @Benchmark
+    public UserView getUserByEmailFromDatabase() {
+        cache.evict(EXISTING_EMAIL); // Force the lookup through to the repository
+        return userService.getUserByEmail(EXISTING_EMAIL, null);
+    }
+
+    // The 404 path of probes for unregistered emails, answered by the Bloom filter, with the miss as an exception
+    @Benchmark
+    public Object getUserByEmailNotFound() {
+        try {
+            return userService.getUserByEmail(MISSING_EMAIL, "User with email " + MISSING_EMAIL + " does not exist");
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    // The same miss as an empty result, as the GET endpoint looks users up
+    @Benchmark
+    public Optional<UserView> findUserByEmailNotFound() {
+        return userService.findUserByEmail(MISSING_EMAIL);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.service.UserService;
+import com.example.userservice.user.validation.UserValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Cost of validating a user with the single-pass UserValidator, next to the previous bean validation + regex pipeline
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserValidationBenchmark {
+
+    // The regex UserService.isValidEmail used to recompile through String.matches on every call
+    private static final String LEGACY_EMAIL_REGEX = "^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$";
+
+    @Param({"hedlund.thomas@email.com", "not-an-email", "a.very.long.local.part.for.testing@sub.domain.example.com"})
+    private String email;
+
+    private UserService userService;
+    private Users user;
+    private LegacyUser legacyUser;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        userService = new UserService(null, null, null, null, null); // Validation does not touch the repository
+        user = new Users("Thomas", "Hedlund", email, "somePassword1");
+        legacyUser = new LegacyUser("Thomas", "Hedlund", email, "somePassword1");
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return userService.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean legacyIsValidEmail() {
+        return email.matches(LEGACY_EMAIL_REGEX);
+    }
+
+    @Benchmark
+    public String validateNewUser() {
+        return UserValidator.validateNewUser(user);
+    }
+
+    // Bean validation in the controller followed by the hand-written checks in UserService, as before
+    @Benchmark
+    public Object legacyValidateNewUser() {
+        Set<ConstraintViolation<LegacyUser>> violations = validator.validate(legacyUser);
+        if (!violations.isEmpty()) {
+            return violations;
+        }
+        if (legacyUser.email == null || legacyUser.email.isEmpty() || !legacyUser.email.matches(LEGACY_EMAIL_REGEX)) {
+            return "Email should be valid";
+        }
+        if (legacyUser.password.length() < 8 || legacyUser.password.length() > 20) {
+            return "Password must be between 8 and 20 characters";
+        }
+        return null;
+    }
+
+    // The constraints Users carried before validation moved to UserValidator
+    public static class LegacyUser {
+
+        @NotNull(message = "Email is mandatory")
+        @Email(message = "Email should be valid")
+        @Size(max = 100, message = "Email must be less than {max} characters long")
+        private final String email;
+
+        @NotNull(message = "Password is required")
+        private final String password;
+
+        @Size(max = 50, message = "First name must be less than {max} characters long")
+        @Pattern(regexp = "^[A-Za-z ]*$", message = "First name must contain only letters")
+        private final String firstName;
+
+        @Size(max = 100, message = "Last name must be less than {max} characters long")
+        @Pattern(regexp = "^[A-Za-z ]*$", message = "Last name must contain only letters")
+        private final String lastName;
+
+        LegacyUser(String firstName, String lastName, String email, String password) {
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.password = password;
+        }
+    }
+}
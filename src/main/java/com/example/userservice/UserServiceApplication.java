@@ -3,11 +3,13 @@ package com.example.userservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
-@SpringBootApplication
+// R2DBC is on the classpath when built with the reactive profile; the servlet application stays on JDBC and JPA,
+// so its connection factory (and the reactive transaction manager that would come with it) is never configured here
+@SpringBootApplication(excludeName = "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration")
 public class UserServiceApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(UserServiceApplication.class, args);
 	}
 
-}
\ No newline at end of file
+}
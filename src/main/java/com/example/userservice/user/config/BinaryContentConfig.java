@@ -0,0 +1,35 @@
+package com.example.userservice.user.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// CBOR and Smile next to JSON on every endpoint, picked from Accept for responses and Content-Type for request bodies.
+// They encode the same Jackson model as JSON, but callers skip parsing text, and field names and numbers take fewer bytes.
+// The mappers are copies of Spring Boot's JSON mapper, so spring.jackson.* settings and modules apply to all three.
+@Configuration
+public class BinaryContentConfig {
+
+    // Media type of Smile documents, as registered by Jackson
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    // Media type of a stream of concatenated CBOR documents (RFC 8742), the binary counterpart of NDJSON
+    public static final String CBOR_SEQ_VALUE = "application/cbor-seq";
+    public static final MediaType CBOR_SEQ = MediaType.parseMediaType(CBOR_SEQ_VALUE);
+
+    // Replace the converters Spring MVC would otherwise create with default Jackson settings
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory()));
+    }
+}
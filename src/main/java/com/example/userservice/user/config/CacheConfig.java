@@ -0,0 +1,21 @@
+package com.example.userservice.user.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Caching runs outside the transaction, so evictions happen only after an update or delete has committed
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    // Name of the cache in front of UserService.getUserByEmail, sized by spring.cache.caffeine.spec
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+
+    // Entries are keyed by normalized email, so case variants of one address share an entry and are evicted together
+    public static final String EMAIL_KEY = "T(com.example.userservice.user.model.Users).normalizeEmail(#email)";
+
+    // Requests pinned to the primary after a write (see ReadYourWritesFilter) neither read nor fill the cache: an entry
+    // may have been cached from a lagging replica, and would hand the writer its old version and ETag back
+    public static final String NOT_PINNED_TO_PRIMARY = "!T(com.example.userservice.user.datasource.ReadWriteRoutingDataSource).isPinnedToPrimary()";
+}
@@ -0,0 +1,45 @@
+package com.example.userservice.user.config;
+
+import com.example.userservice.user.limiter.AdaptiveConcurrencyLimit;
+import com.example.userservice.user.limiter.ConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// Adaptive load shedding on the user endpoints, with one limit for reads and one for writes. Actuator, Swagger and the
+// H2 console are left out, so health checks keep answering while the API sheds load.
+@Configuration
+@ConditionalOnProperty(name = "userservice.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    ConcurrencyLimitFilter concurrencyLimitFilter(
+            @Value("${userservice.concurrency-limit.read.initial-limit:100}") int readInitialLimit,
+            @Value("${userservice.concurrency-limit.read.min-limit:10}") int readMinLimit,
+            @Value("${userservice.concurrency-limit.read.max-limit:400}") int readMaxLimit,
+            @Value("${userservice.concurrency-limit.write.initial-limit:50}") int writeInitialLimit,
+            @Value("${userservice.concurrency-limit.write.min-limit:5}") int writeMinLimit,
+            @Value("${userservice.concurrency-limit.write.max-limit:200}") int writeMaxLimit,
+            @Value("${userservice.concurrency-limit.window:1s}") Duration window,
+            @Value("${userservice.concurrency-limit.min-window-samples:10}") int minWindowSamples,
+            @Value("${userservice.concurrency-limit.retry-after:1s}") Duration retryAfter) {
+        return new ConcurrencyLimitFilter(
+                new AdaptiveConcurrencyLimit(readInitialLimit, readMinLimit, readMaxLimit, window, minWindowSamples),
+                new AdaptiveConcurrencyLimit(writeInitialLimit, writeMinLimit, writeMaxLimit, window, minWindowSamples),
+                retryAfter);
+    }
+
+    // Right after the observation filter, so shed requests still show up in http.server.requests as 503s
+    @Bean
+    FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/v1/userservice/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
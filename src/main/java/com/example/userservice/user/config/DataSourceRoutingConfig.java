@@ -0,0 +1,93 @@
+package com.example.userservice.user.config;
+
+import com.example.userservice.user.datasource.H2ReplicaCopier;
+import com.example.userservice.user.datasource.ReadWriteRoutingDataSource;
+import com.example.userservice.user.datasource.ReadYourWritesFilter;
+import com.example.userservice.user.datasource.ReplicaLagCacheManager;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Opt-in read/write split: read-only transactions (lookups, listing, export) run on a replica pool, everything else
+// on the primary. Without userservice.datasource.replica.enabled=true Spring Boot's single pool is used unchanged.
+@Configuration
+@ConditionalOnProperty(name = "userservice.datasource.replica.enabled", havingValue = "true")
+@EnableConfigurationProperties(CacheProperties.class)
+public class DataSourceRoutingConfig {
+
+    // The pool Spring Boot would have created from spring.datasource.*
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // Any Hikari setting (jdbc-url, username, maximum-pool-size, ...) can be given under userservice.datasource.replica.*
+    @Bean
+    @ConfigurationProperties("userservice.datasource.replica")
+    HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // Used by JPA, JdbcTemplate and everything else that asks for the DataSource
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+    }
+
+    // The cache manager Spring Boot would have built from spring.cache.*, with a second eviction once the replica
+    // has caught up (see ReplicaLagCacheManager)
+    @Bean
+    CaffeineCacheManager cacheManager(CacheProperties cacheProperties,
+                                      ObjectProvider<CacheManagerCustomizer<CaffeineCacheManager>> customizers,
+                                      @Value("${userservice.datasource.replica.max-lag:5s}") Duration maxLag) {
+        ReplicaLagCacheManager cacheManager = new ReplicaLagCacheManager(maxLag);
+        if (StringUtils.hasText(cacheProperties.getCaffeine().getSpec())) {
+            cacheManager.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+        }
+        if (!cacheProperties.getCacheNames().isEmpty()) {
+            cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        }
+        customizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
+    }
+
+    // Local stand-in for replication between two H2 databases, on with userservice.datasource.replica.copy-interval
+    @Bean
+    @ConditionalOnProperty("userservice.datasource.replica.copy-interval")
+    H2ReplicaCopier h2ReplicaCopier(@Qualifier("primaryDataSource") DataSource primary,
+                                    @Qualifier("replicaDataSource") HikariDataSource replica,
+                                    @Value("${userservice.datasource.replica.copy-interval}") Duration interval) {
+        return new H2ReplicaCopier(primary,
+                new DriverManagerDataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()), interval);
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(@Value("${userservice.datasource.replica.max-lag:5s}") Duration maxLag) {
+        return new ReadYourWritesFilter(maxLag);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.userservice.user.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Controller requests (http.server.requests), repository queries (spring.data.repository.invocations) and the
+// Hikari pool (hikaricp.connections.*) are instrumented by Spring Boot; this adds @Timed for the service layer
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -2,9 +2,14 @@ package com.example.userservice.user.config;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.servers.Server;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
+// The document springdoc generates from this and the controllers is checked in as openapi/openapi.yaml. The server is
+// relative, so the generated document does not depend on the host and port it was generated on.
 @Configuration
 @OpenAPIDefinition
 public class OpenAPIConfig {
@@ -14,6 +19,7 @@ public class OpenAPIConfig {
                     .info(new io.swagger.v3.oas.models.info.Info()
                             .title("User Service System API")
                             .version("1.0")
-                            .description("API documentation for a service for creating, retrieving, updating, and deleting users."));
+                            .description("API documentation for a service for creating, retrieving, updating, and deleting users."))
+                    .servers(List.of(new Server().url("/").description("This service")));
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.example.userservice.user.config;
+
+import com.example.userservice.user.sharding.ShardRoutingDataSource;
+import com.example.userservice.user.sharding.ShardSchemaInitializer;
+import com.example.userservice.user.sharding.UserResharder;
+import com.example.userservice.user.sharding.UserShardMover;
+import com.example.userservice.user.sharding.UserShards;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Users live on one shard, or with userservice.sharding.enabled=true on one of the databases listed under
+// userservice.sharding.shards[n].* (any Hikari setting), chosen by a hash of the email (see UserShards)
+@Configuration
+public class ShardingConfig {
+
+    // Without sharding the application DataSource is the only shard
+    @Bean
+    @ConditionalOnProperty(name = "userservice.sharding.enabled", havingValue = "false", matchIfMissing = true)
+    UserShards userShards(DataSource dataSource) {
+        return new UserShards(List.of(dataSource));
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "userservice.sharding.enabled", havingValue = "true")
+    static class Sharded {
+
+        @Bean(destroyMethod = "closeDataSources")
+        UserShards userShards(Environment environment,
+                              ObjectProvider<MeterRegistry> meterRegistry,
+                              @Value("${userservice.datasource.replica.enabled:false}") boolean replicaEnabled) {
+            if (replicaEnabled) {
+                throw new IllegalStateException("Sharding and the read replica (userservice.datasource.replica) cannot be combined");
+            }
+
+            List<HikariConfig> configs = Binder.get(environment)
+                    .bind("userservice.sharding.shards", Bindable.listOf(HikariConfig.class))
+                    .orElseThrow(() -> new IllegalStateException("userservice.sharding.shards lists no database"));
+            List<DataSource> dataSources = new ArrayList<>(configs.size());
+            for (int shard = 0; shard < configs.size(); shard++) {
+                HikariConfig config = configs.get(shard);
+                config.setPoolName("shard-" + shard);
+                meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+                dataSources.add(new HikariDataSource(config));
+            }
+            return new UserShards(dataSources);
+        }
+
+        // Used by JPA, JdbcTemplate and everything else that asks for the DataSource; lazy so that a transaction
+        // opened before a shard is selected (e.g. around a fan-out) does not take a connection it never uses
+        @Bean
+        @Primary
+        DataSource dataSource(UserShards userShards) {
+            return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(userShards));
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer shardSchemaCustomizer(UserShards userShards) {
+            return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new ShardSchemaInitializer(userShards)));
+        }
+
+        @Bean
+        UserResharder userResharder(UserShards userShards, UserShardMover userShardMover) {
+            return new UserResharder(userShards, userShardMover);
+        }
+
+        // Resharding tool: start once with --userservice.sharding.reshard=true after changing the shard list
+        @Bean
+        @ConditionalOnProperty(name = "userservice.sharding.reshard", havingValue = "true")
+        ApplicationRunner reshardRunner(UserResharder userResharder) {
+            return args -> userResharder.reshard();
+        }
+    }
+}
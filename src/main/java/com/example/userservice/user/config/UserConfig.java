@@ -2,7 +2,10 @@ package com.example.userservice.user.config;
 
 import com.example.userservice.user.model.Users;
 import com.example.userservice.user.repository.UserRepository;
+import com.example.userservice.user.security.PasswordHasher;
+import com.example.userservice.user.sharding.UserShards;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,24 +13,29 @@ import java.util.List;
 
 @Configuration
 public class UserConfig {
+    // Seeds two demo users at startup. Each costs a bcrypt hash on the startup thread, so instances that scale out on
+    // traffic (the fast-startup profile) turn it off with userservice.seed.enabled=false.
     @Bean
-    CommandLineRunner commandLineRunner(UserRepository repository) {
+    @ConditionalOnProperty(name = "userservice.seed.enabled", havingValue = "true", matchIfMissing = true)
+    CommandLineRunner commandLineRunner(UserRepository repository, PasswordHasher passwordHasher, UserShards userShards) {
         return  args -> {
             Users users1 = new Users(
                     "Thomas",
                     "Hedlund",
                     "hedlund.thomas@email.com",
-                    "somePassword1"
+                    passwordHasher.hash("somePassword1")
             );
             Users users2 = new Users(
                     "Julie",
                     "Christmas",
                     "juliexmas@email.com",
-                    "somePassword2"
+                    passwordHasher.hash("somePassword2")
             );
 
-            // Save users to the repository
-            repository.saveAll(List.of(users1, users2));
+            // Save users to the repository, each on its shard
+            for (Users user : List.of(users1, users2)) {
+                userShards.onShard(userShards.shardOf(user.getEmail()), () -> repository.save(user));
+            }
         };
     }
 }
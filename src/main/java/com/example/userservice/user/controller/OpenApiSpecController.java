@@ -0,0 +1,49 @@
+package com.example.userservice.user.controller;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+// Serves the OpenAPI document checked in at src/main/resources/openapi/openapi.yaml, generated from the controllers by
+// springdoc at build time (OpenApiSpecTest fails the build when it is stale). It is read and hashed once, so the spec
+// is published without springdoc, which only runs in the tests and the docs profile.
+@Hidden
+@RestController
+public class OpenApiSpecController {
+
+    // Media type registered for OpenAPI documents in YAML
+    public static final String OPENAPI_YAML_VALUE = "application/vnd.oai.openapi";
+
+    private final byte[] spec;
+    private final String eTag;
+
+    public OpenApiSpecController(@Value("${userservice.openapi.spec:classpath:openapi/openapi.yaml}") Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            this.spec = in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the OpenAPI spec from " + resource, e);
+        }
+        this.eTag = "\"" + DigestUtils.md5DigestAsHex(spec) + "\"";
+    }
+
+    // Spring MVC answers 304 for a matching If-None-Match; clients revalidate on every use, since the spec changes
+    // with each release
+    @GetMapping("/openapi.yaml")
+    public ResponseEntity<byte[]> getSpec() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(OPENAPI_YAML_VALUE))
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(spec);
+    }
+}
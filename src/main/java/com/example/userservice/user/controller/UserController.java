@@ -1,27 +1,61 @@
 package com.example.userservice.user.controller;
 
+import com.example.userservice.user.config.BinaryContentConfig;
+import com.example.userservice.user.dto.BatchCreateResponse;
+import com.example.userservice.user.dto.BatchDeleteResponse;
+import com.example.userservice.user.dto.ImportJobStatus;
+import com.example.userservice.user.dto.UserPage;
+import com.example.userservice.user.dto.UserPatch;
+import com.example.userservice.user.importer.ImportFormat;
 import com.example.userservice.user.model.Users;
+import com.example.userservice.user.service.UserBatchService;
+import com.example.userservice.user.service.UserETag;
+import com.example.userservice.user.service.UserExportService;
+import com.example.userservice.user.service.UserImportService;
 import com.example.userservice.user.service.UserService;
+import com.example.userservice.user.validation.UserValidator;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
-import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping(path = "api/v1/userservice")
 public class UserController {
 
+    // Media type of JSON Merge Patch documents (RFC 7386)
+    public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final UserService userService;
+    private final UserBatchService userBatchService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService,
+                          UserBatchService userBatchService,
+                          UserExportService userExportService,
+                          UserImportService userImportService) {
         this.userService = userService;
+        this.userBatchService = userBatchService;
+        this.userExportService = userExportService;
+        this.userImportService = userImportService;
     }
 
 
@@ -33,7 +67,7 @@ public class UserController {
     })
     @PostMapping("/users")
     public ResponseEntity<String> createUser(
-            @Valid @RequestBody Users user) {
+            @RequestBody Users user) {
         try {
             String message = userService.createUser(user);
             return ResponseEntity.status(HttpStatus.CREATED).body(message); // 201 Successfully created
@@ -43,10 +77,113 @@ public class UserController {
     }
 
 
+    // Create many users at once
+    @Operation(summary = "Creates users in bulk")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The batch was processed, users that could not be created are reported with their errors"),
+            @ApiResponse(responseCode = "400", description = "Bad Request")
+    })
+    @PostMapping("/users/batch")
+    public ResponseEntity<Object> createUsers(
+            @RequestBody List<Users> users) {
+        try {
+            BatchCreateResponse response = userBatchService.createUsers(users);
+            return ResponseEntity.ok(response); // 200 Batch processed
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage()); // 400 Bad request
+        }
+    }
+
+
+    // List users one page at a time
+    @Operation(summary = "List users with cursor pagination")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "A page of users, with the cursor of the next page"),
+            @ApiResponse(responseCode = "400", description = "Bad Request")
+    })
+    @GetMapping("/users")
+    public ResponseEntity<Object> listUsers(
+            @Parameter(name = "cursor", description = "Cursor returned with the previous page, omitted for the first page", in = ParameterIn.QUERY)
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @Parameter(name = "size", description = "Maximum number of users in the page", in = ParameterIn.QUERY)
+            @RequestParam(name = "size", defaultValue = "50") int size) {
+        try {
+            UserPage page = userService.listUsers(cursor, size);
+            return ResponseEntity.ok(page); // 200 Page found
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage()); // 400 Bad request
+        }
+    }
+
+
+    // Export all users as newline-delimited JSON
+    @Operation(summary = "Export all users as NDJSON or as a CBOR sequence")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Every user, streamed as they are read: one JSON document per line, or one CBOR document after another with Accept: application/cbor-seq",
+                    content = {@Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE), @Content(mediaType = BinaryContentConfig.CBOR_SEQ_VALUE)})
+    })
+    @GetMapping(path = "/users/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = userExportService::exportUsers; // Written on an async thread, row by row
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body); // 200 Export started
+    }
+
+
+    // Export all users as a CBOR sequence, for callers that asked for it with Accept: application/cbor-seq.
+    // Documented with exportUsers: both share the path, and springdoc would merge them into one operation anyway.
+    @Operation(hidden = true)
+    @GetMapping(path = "/users/export", produces = BinaryContentConfig.CBOR_SEQ_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsersAsCbor() {
+        StreamingResponseBody body = userExportService::exportUsersAsCbor; // Written on an async thread, row by row
+        return ResponseEntity.ok().contentType(BinaryContentConfig.CBOR_SEQ).body(body); // 200 Export started
+    }
+
+
+    // Start a bulk import from a CSV or NDJSON upload
+    @Operation(summary = "Import users from a CSV or NDJSON upload")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "The import job was queued, its progress is available at the Location header"),
+            @ApiResponse(responseCode = "415", description = "The upload is neither text/csv nor application/x-ndjson"),
+            @ApiResponse(responseCode = "503", description = "Too many imports are queued, try again later")
+    })
+    @PostMapping(path = "/users/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Object> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        try {
+            ImportJobStatus job = userImportService.startImport(body, ImportFormat.fromContentType(contentType));
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/userservice/users/import/" + job.id()))
+                    .body(job); // 202 Import queued
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body("Too many imports are queued, try again later"); // 503 Import queue is full
+        }
+    }
+
+
+    // Get the progress of a bulk import
+    @Operation(summary = "Retrieve the progress of an import job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rows processed, rejected and throughput of the import"),
+            @ApiResponse(responseCode = "404", description = "An import job with the specified id does not exist")
+    })
+    @GetMapping("/users/import/{jobId}")
+    public ResponseEntity<Object> getImportStatus(
+            @Parameter(name = "jobId", description = "Import job id", required = true, in = ParameterIn.PATH)
+            @PathVariable("jobId") String jobId) {
+        return userImportService.getImportStatus(jobId)
+                .<ResponseEntity<Object>>map(ResponseEntity::ok) // 200 Job found
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Import job " + jobId + " does not exist")); // 404 Not Found
+    }
+
+
     // Get a user by email
     @Operation(summary = "Retrieve an existing user")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "User found"),
+            @ApiResponse(responseCode = "200", description = "User found, with its version as ETag"),
+            @ApiResponse(responseCode = "304", description = "The user still matches the If-None-Match ETag"),
             @ApiResponse(responseCode = "400", description = "Bad Request"),
             @ApiResponse(responseCode = "404", description = "A user with the specified email does not exist")
     })
@@ -54,15 +191,16 @@ public class UserController {
     public ResponseEntity<Object> getUserByEmail(
             @Parameter(name = "email", description = "User email", required = true, in = ParameterIn.PATH)
             @PathVariable("email") String email) {
-        try {
-            Users user = userService.getUserByEmail(email, "User with email " + email + " does not exist");
-            return ResponseEntity.ok(user); // 200 User found
-        } catch (IllegalStateException e) {
-            if (e.getMessage().contains(email)) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage()); // 404 Not Found
-            }
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage()); // 400 Bad Request
+        // Reject emails too long to be stored before they reach the cache or the database; any other unknown email is a 404
+        String error = UserValidator.validateLookupEmail(email);
+        if (error != null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error); // 400 Bad Request
         }
+        // The user comes from the cache when present; Spring MVC answers 304 for a matching If-None-Match
+        // before the body is serialized. A miss is an empty result, so probes for unknown emails throw nothing.
+        return userService.findUserByEmail(email)
+                .<ResponseEntity<Object>>map(user -> ResponseEntity.ok().eTag(UserETag.of(user)).body(user)) // 200 User found
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("User with email " + email + " does not exist")); // 404 Not Found
     }
 
 
@@ -71,20 +209,44 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "The user was updated successfully"),
             @ApiResponse(responseCode = "400", description = "Bad Request"),
-            @ApiResponse(responseCode = "404", description = "A user with the specified email does not exist")
+            @ApiResponse(responseCode = "404", description = "A user with the specified email does not exist"),
+            @ApiResponse(responseCode = "412", description = "The user no longer matches the If-Match ETag")
     })
     @PutMapping("/users/{email}")
     public ResponseEntity<String> updateUser(
             @Parameter(name = "email", description = "User email", required = true, in = ParameterIn.PATH)
             @PathVariable String email,
-            @Valid @RequestBody Users updatedUser) {
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Users updatedUser) {
         try {
-            userService.updateUser(email, updatedUser);
+            userService.updateUser(email, updatedUser, ifMatch);
+            return ResponseEntity.noContent().build(); // 204 Update was successful
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage()); // 400 Bad Request for all validation errors
+        }
+    }
+
+
+    // Partially update a user with a JSON Merge Patch: absent fields are left alone and null removes an optional field
+    @Operation(summary = "Partially update an existing user (JSON Merge Patch)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "The user was updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Bad Request"),
+            @ApiResponse(responseCode = "404", description = "A user with the specified email does not exist"),
+            @ApiResponse(responseCode = "412", description = "The user no longer matches the If-Match ETag")
+    })
+    @PatchMapping(path = "/users/{email}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, BinaryContentConfig.SMILE_VALUE})
+    public ResponseEntity<String> patchUser(
+            @Parameter(name = "email", description = "User email", required = true, in = ParameterIn.PATH)
+            @PathVariable String email,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        try {
+            userService.patchUser(email, UserPatch.from(patch), ifMatch);
             return ResponseEntity.noContent().build(); // 204 Update was successful
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage()); // 400 Bad Request for all validation errors
-        } catch (IllegalStateException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage()); // 404 Not Found
         }
     }
 
@@ -93,17 +255,37 @@ public class UserController {
     @Operation(summary = "Delete an existing user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "The user was deleted successfully"),
-            @ApiResponse(responseCode = "400", description = "Bad Request")
+            @ApiResponse(responseCode = "404", description = "A user with the specified email does not exist"),
+            @ApiResponse(responseCode = "412", description = "The user no longer matches the If-Match ETag")
     })
     @DeleteMapping("/users/{email}")
     public ResponseEntity<String> deleteUser(
             @Parameter(name = "email", description = "User email", required = true, in = ParameterIn.PATH)
-            @PathVariable String email) {
+            @PathVariable String email,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            userService.deleteUser(email);
+            userService.deleteUser(email, ifMatch);
             return ResponseEntity.noContent().build(); // 204 Successfully deleted
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage()); // 400 Bad request
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage()); // 404 Not Found, nothing was deleted
+        }
+    }
+
+
+    // Delete many users at once by email
+    @Operation(summary = "Deletes users in bulk by email")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The batch was processed, with the number of users deleted"),
+            @ApiResponse(responseCode = "400", description = "Bad Request")
+    })
+    @DeleteMapping("/users")
+    public ResponseEntity<Object> deleteUsers(
+            @RequestBody List<String> emails) {
+        try {
+            BatchDeleteResponse response = userBatchService.deleteUsers(emails);
+            return ResponseEntity.ok(response); // 200 Batch processed
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage()); // 400 Bad request
         }
     }
 }
@@ -0,0 +1,125 @@
+package com.example.userservice.user.datasource;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Stands in for replication when primary and replica are two local H2 databases (the replica profile): copies schema
+// and data of the primary over before the server takes requests, then the data of every table at a fixed interval,
+// which is how far the replica lags behind. Each copy replaces the rows in one transaction, so replica reads never see
+// a half-copied table. Only meant for local use; a real replica is kept up to date by the database itself.
+public class H2ReplicaCopier implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(H2ReplicaCopier.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler;
+
+    // The replica DataSource has to be writable, so not the read-only replica pool
+    public H2ReplicaCopier(DataSource primary, DataSource replica, Duration interval) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.interval = interval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "h2-replica-copy");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Hibernate has created the schema by now; the demo users seeded at startup arrive with the next copy
+    @Override
+    public void afterSingletonsInstantiated() {
+        copySchemaAndData();
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::copyDataQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public void copySchemaAndData() {
+        List<String> script = primary.queryForList("script drop", String.class);
+        script.forEach(replica::execute);
+    }
+
+    // Replace the rows of every replica table with those of the primary, in one replica transaction
+    public void copyData() {
+        List<String> tables = replica.queryForList(
+                "select table_name from information_schema.tables where table_schema = 'PUBLIC' and table_type = 'BASE TABLE'",
+                String.class);
+        replica.execute((ConnectionCallback<Void>) connection -> {
+            connection.setAutoCommit(false);
+            try {
+                for (String table : tables) {
+                    copyTable(quote(table), connection);
+                }
+                connection.commit();
+            } catch (RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
+    private void copyTable(String table, Connection replicaConnection) {
+        primary.query("select * from " + table, (ResultSet rows) -> {
+            ResultSetMetaData metaData = rows.getMetaData();
+            int columns = metaData.getColumnCount();
+            List<String> names = new ArrayList<>(columns);
+            for (int column = 1; column <= columns; column++) {
+                names.add(quote(metaData.getColumnName(column)));
+            }
+            try (Statement delete = replicaConnection.createStatement();
+                 PreparedStatement insert = replicaConnection.prepareStatement("insert into " + table
+                         + " (" + String.join(", ", names) + ") values ("
+                         + String.join(", ", Collections.nCopies(columns, "?")) + ")")) {
+                delete.executeUpdate("delete from " + table);
+                while (rows.next()) {
+                    for (int column = 1; column <= columns; column++) {
+                        insert.setObject(column, rows.getObject(column));
+                    }
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    private void copyDataQuietly() {
+        try {
+            copyData();
+        } catch (RuntimeException e) {
+            log.warn("Copying the primary to the replica failed, retrying in {}", interval, e);
+        }
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
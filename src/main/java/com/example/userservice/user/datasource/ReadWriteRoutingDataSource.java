@@ -0,0 +1,44 @@
+package com.example.userservice.user.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Sends connections of read-only transactions to the replica and everything else to the primary.
+// It must sit behind a LazyConnectionDataSourceProxy: a transaction is only flagged read-only after it began,
+// so the physical connection has to be fetched lazily, on the first statement.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    // Set for the duration of a request whose client must read its own writes (see ReadYourWritesFilter)
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // Route every transaction of the current thread to the primary, read-only ones included
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    // Whether the current request must read its own writes, in which case it skips the lookup cache as well
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replica = TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PINNED_TO_PRIMARY.get() == null;
+        return replica ? Route.REPLICA : Route.PRIMARY;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.userservice.user.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+// Replication-lag guard: keeps a client on the primary for a while after it wrote, so it reads its own writes.
+// A write request sets a cookie holding the time until which the client's reads must skip the replica; write requests
+// and requests carrying an unexpired cookie are pinned to the primary for their whole duration.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_NAME = "userservice-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final Duration maxLag;
+
+    public ReadYourWritesFilter(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write) {
+            // Set before the response is committed; a failed write only costs the client a few reads on the primary
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + maxLag.toMillis()));
+            cookie.setMaxAge((int) Math.max(1, (maxLag.toMillis() + 999) / 1000));
+            cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        } else if (!wroteRecently(request, now)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ReadWriteRoutingDataSource.pinToPrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.unpin();
+        }
+    }
+
+    private static boolean wroteRecently(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > now;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
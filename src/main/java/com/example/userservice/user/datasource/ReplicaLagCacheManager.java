@@ -0,0 +1,75 @@
+package com.example.userservice.user.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Caffeine caches that evict every entry a second time once the replica has caught up. After a write evicts a user,
+// a client that is not pinned to the primary can still read the old row from the lagging replica and cache it again;
+// the second eviction, max-lag later, drops that copy, so stale users are served for at most max-lag.
+// Entries stay CaffeineCaches, so the cache metrics and the caches actuator endpoint see them as before.
+public class ReplicaLagCacheManager extends CaffeineCacheManager implements DisposableBean {
+
+    private final Duration maxLag;
+    private final ScheduledExecutorService scheduler;
+
+    public ReplicaLagCacheManager(Duration maxLag) {
+        this.maxLag = maxLag;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-replica-lag-evict");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        return new ReplicaLagCache(name, cache, isAllowNullValues());
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void later(Runnable eviction) {
+        scheduler.schedule(eviction, maxLag.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private final class ReplicaLagCache extends CaffeineCache {
+
+        ReplicaLagCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache, boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        public void evict(Object key) {
+            super.evict(key);
+            later(() -> super.evict(key));
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            later(() -> super.evict(key));
+            return super.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            later(super::clear);
+        }
+
+        @Override
+        public boolean invalidate() {
+            later(super::clear);
+            return super.invalidate();
+        }
+    }
+}
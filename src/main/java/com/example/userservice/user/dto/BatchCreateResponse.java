@@ -0,0 +1,7 @@
+package com.example.userservice.user.dto;
+
+import java.util.List;
+
+// Summary of a batch create request, with one error entry for every user that was not created
+public record BatchCreateResponse(int received, int created, int failed, List<BatchItemError> errors) {
+}
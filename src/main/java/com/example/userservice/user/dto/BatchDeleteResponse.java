@@ -0,0 +1,5 @@
+package com.example.userservice.user.dto;
+
+// Summary of a bulk delete request: how many distinct emails were received and how many users were deleted
+public record BatchDeleteResponse(int received, int deleted) {
+}
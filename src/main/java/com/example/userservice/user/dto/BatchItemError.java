@@ -0,0 +1,5 @@
+package com.example.userservice.user.dto;
+
+// Reason a single user of a batch was rejected, identified by its position in the request
+public record BatchItemError(int index, String email, String message) {
+}
@@ -0,0 +1,18 @@
+package com.example.userservice.user.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+// Progress of a bulk import job; errors holds the first rejected records, up to a fixed limit
+public record ImportJobStatus(String id,
+                              String format,
+                              String state,
+                              long processed,
+                              long created,
+                              long rejected,
+                              double rowsPerSecond,
+                              Instant startedAt,
+                              Instant finishedAt,
+                              String failure,
+                              List<BatchItemError> errors) {
+}
@@ -0,0 +1,9 @@
+package com.example.userservice.user.dto;
+
+import com.example.userservice.user.model.Users;
+
+import java.util.List;
+
+// One page of users ordered by id, with the cursor to pass for the next page (null on the last page)
+public record UserPage(List<Users> users, String nextCursor) {
+}
@@ -0,0 +1,62 @@
+package com.example.userservice.user.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// A JSON Merge Patch (RFC 7386) of a user: fields that are absent stay unchanged and fields set to null are removed
+public final class UserPatch {
+
+    public static final String EMAIL = "email";
+    public static final String PASSWORD = "password";
+    public static final String FIRST_NAME = "firstName";
+    public static final String LAST_NAME = "lastName";
+
+    private static final Set<String> FIELDS = Set.of(EMAIL, PASSWORD, FIRST_NAME, LAST_NAME);
+
+    private final Map<String, String> changes;
+
+    private UserPatch(Map<String, String> changes) {
+        this.changes = Collections.unmodifiableMap(changes);
+    }
+
+    // Read a merge patch document, rejecting anything but an object of known text (or null) fields
+    public static UserPatch from(JsonNode document) {
+        if (document == null || !document.isObject()) {
+            throw new IllegalArgumentException("Patch must be a JSON object");
+        }
+
+        Map<String, String> changes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = document.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!FIELDS.contains(field.getKey())) {
+                throw new IllegalArgumentException("Field " + field.getKey() + " cannot be patched");
+            }
+            JsonNode value = field.getValue();
+            if (!value.isNull() && !value.isTextual()) {
+                throw new IllegalArgumentException("Field " + field.getKey() + " must be a string or null");
+            }
+            changes.put(field.getKey(), value.isNull() ? null : value.textValue());
+        }
+        return new UserPatch(changes);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    // Whether the patch mentions the field, with a value or with null
+    public boolean has(String field) {
+        return changes.containsKey(field);
+    }
+
+    // New value of the field, null when it is removed or not part of the patch
+    public String get(String field) {
+        return changes.get(field);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.userservice.user.dto;
+
+import com.example.userservice.user.model.Users;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+// The public columns of a user, as lookups by email return it: selected straight into this record by
+// UserRepository.findViewByEmailKey, so no entity is hydrated and the password never leaves the database.
+// The version is not written to the body; it is published as the ETag (see UserETag).
+@JsonSerialize(using = UserViewSerializer.class)
+public record UserView(Long id, String email, String firstName, String lastName, Long version) {
+
+    public static UserView of(Users user) {
+        return new UserView(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getVersion());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.userservice.user.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Writes a UserView field by field, with the same fields and order as the Users entity had, instead of going through
+// bean introspection and per-property serializers. Field names are encoded once; works for JSON, CBOR and Smile alike.
+public class UserViewSerializer extends StdSerializer<UserView> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializedString LAST_NAME = new SerializedString("lastName");
+
+    public UserViewSerializer() {
+        super(UserView.class);
+    }
+
+    @Override
+    public void serialize(UserView user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(user);
+        generator.writeFieldName(ID);
+        if (user.id() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(user.id());
+        }
+        writeString(generator, EMAIL, user.email());
+        writeString(generator, FIRST_NAME, user.firstName());
+        writeString(generator, LAST_NAME, user.lastName());
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+}
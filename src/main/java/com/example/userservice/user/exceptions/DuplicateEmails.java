@@ -0,0 +1,32 @@
+package com.example.userservice.user.exceptions;
+
+import com.example.userservice.user.model.Users;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+// Tells a violation of the unique email index apart from other integrity violations (a null column, a too long value),
+// which are bugs rather than a taken email. Databases name the violated constraint in the message of the driver
+// exception (H2 appends an index suffix and upper cases it), so the cause chain is searched for its name. Takes any
+// Throwable so reactive pipelines can use it as an error predicate; anything but a DataIntegrityViolationException is not
+// a duplicate email.
+public final class DuplicateEmails {
+
+    private static final String CONSTRAINT = Users.EMAIL_UNIQUE_CONSTRAINT.toLowerCase(Locale.ROOT);
+
+    private DuplicateEmails() {
+    }
+
+    public static boolean isDuplicateEmail(Throwable e) {
+        if (!(e instanceof DataIntegrityViolationException)) {
+            return false;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
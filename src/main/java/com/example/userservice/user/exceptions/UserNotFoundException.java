@@ -0,0 +1,20 @@
+package com.example.userservice.user.exceptions;
+
+// No user has the requested email; answered with 404 by GlobalExceptionHandler.
+// It is an expected outcome (signup probes, typos), not a failure, so it carries no stack trace: filling one in walks
+// the whole request stack through the Spring proxies on every miss. Still an IllegalStateException, as it was before.
+public class UserNotFoundException extends IllegalStateException {
+
+    public UserNotFoundException(String message) {
+        super(message);
+    }
+
+    public static UserNotFoundException forEmail(String email) {
+        return new UserNotFoundException("User with email " + email + " does not exist");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
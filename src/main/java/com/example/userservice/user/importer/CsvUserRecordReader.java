@@ -0,0 +1,117 @@
+package com.example.userservice.user.importer;
+
+import com.example.userservice.user.model.Users;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Reads RFC 4180 CSV with a header row naming the email, password, firstName and lastName columns in any order
+class CsvUserRecordReader implements UserRecordReader {
+
+    private final BufferedReader reader;
+    private int emailColumn = -1;
+    private int passwordColumn = -1;
+    private int firstNameColumn = -1;
+    private int lastNameColumn = -1;
+    private long recordNumber;
+    private boolean unterminatedQuote;
+
+    CsvUserRecordReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+
+        List<String> header = readRow();
+        if (header == null) {
+            return; // Empty upload
+        }
+        for (int i = 0; i < header.size(); i++) {
+            // Accept both camelCase and snake_case column names
+            switch (header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT)) {
+                case "email" -> emailColumn = i;
+                case "password" -> passwordColumn = i;
+                case "firstname" -> firstNameColumn = i;
+                case "lastname" -> lastNameColumn = i;
+                default -> {
+                    // Unknown columns are ignored
+                }
+            }
+        }
+        if (emailColumn < 0) {
+            throw new IOException("CSV header must contain an email column");
+        }
+    }
+
+    @Override
+    public ParsedRecord next() throws IOException {
+        List<String> row;
+        do {
+            row = readRow();
+            if (row == null) {
+                return null;
+            }
+        } while (row.size() == 1 && row.get(0).isEmpty()); // Skip blank lines
+
+        recordNumber++;
+        if (unterminatedQuote) {
+            return ParsedRecord.invalid(recordNumber, "Unterminated quoted field");
+        }
+        Users user = new Users(
+                field(row, firstNameColumn),
+                field(row, lastNameColumn),
+                field(row, emailColumn),
+                field(row, passwordColumn));
+        return ParsedRecord.of(recordNumber, user);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String field(List<String> row, int column) {
+        return column >= 0 && column < row.size() ? row.get(column) : null;
+    }
+
+    // Read one row, honouring quoted fields that contain commas, escaped quotes or line breaks
+    private List<String> readRow() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    unterminatedQuote = true;
+                    fields.add(field.toString());
+                    return fields;
+                }
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        quoted = false; // Closing quote, the next character belongs to the unquoted part
+                        c = next;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == -1 || c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.userservice.user.importer;
+
+import org.springframework.http.MediaType;
+
+// Upload formats accepted by the bulk import, one user per record
+public enum ImportFormat {
+    CSV("text/csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE);
+
+    private final MediaType mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    // Resolve the format from the Content-Type of the upload, ignoring parameters such as charset
+    public static ImportFormat fromContentType(String contentType) {
+        MediaType type = MediaType.parseMediaType(contentType);
+        for (ImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(type)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import format " + contentType);
+    }
+}
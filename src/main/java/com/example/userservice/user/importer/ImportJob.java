@@ -0,0 +1,113 @@
+package com.example.userservice.user.importer;
+
+import com.example.userservice.user.dto.BatchItemError;
+import com.example.userservice.user.dto.ImportJobStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one bulk import, updated by the import worker and read concurrently by status requests
+public class ImportJob {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    // Only the first rejected records are kept, so a bad upload cannot exhaust memory
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final String id = UUID.randomUUID().toString();
+    private final ImportFormat format;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<BatchItemError> errors = new ArrayList<>();
+    private volatile State state = State.QUEUED;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+
+    public ImportJob(ImportFormat format) {
+        this.format = format;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void start() {
+        startedNanos = System.nanoTime();
+        startedAt = Instant.now();
+        state = State.RUNNING;
+    }
+
+    // Record the outcome of one written chunk
+    public void recordChunk(int size, int createdInChunk, List<BatchItemError> chunkErrors) {
+        created.addAndGet(createdInChunk);
+        chunkErrors.forEach(this::recordError);
+        processed.addAndGet(size);
+    }
+
+    // Record a record that was rejected before reaching the database, such as a parse error
+    public void reject(BatchItemError error) {
+        recordError(error);
+        processed.incrementAndGet();
+    }
+
+    public void complete() {
+        finish(State.COMPLETED);
+    }
+
+    public void fail(String reason) {
+        failure = reason;
+        finish(State.FAILED);
+    }
+
+    private void finish(State finalState) {
+        finishedNanos = System.nanoTime();
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+
+    private void recordError(BatchItemError error) {
+        rejected.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+
+    public ImportJobStatus toStatus() {
+        State currentState = state;
+        long processedRows = processed.get();
+        double rowsPerSecond = 0;
+        if (currentState != State.QUEUED) {
+            long end = currentState == State.RUNNING ? System.nanoTime() : finishedNanos;
+            double seconds = (end - startedNanos) / 1_000_000_000.0;
+            rowsPerSecond = seconds > 0 ? processedRows / seconds : 0;
+        }
+
+        List<BatchItemError> reportedErrors;
+        synchronized (errors) {
+            reportedErrors = List.copyOf(errors);
+        }
+        return new ImportJobStatus(id, format.name(), currentState.name(), processedRows, created.get(), rejected.get(),
+                rowsPerSecond, startedAt, finishedAt, failure, reportedErrors);
+    }
+}
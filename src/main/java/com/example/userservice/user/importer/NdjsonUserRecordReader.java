@@ -0,0 +1,50 @@
+package com.example.userservice.user.importer;
+
+import com.example.userservice.user.model.Users;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+// Reads one JSON user per line; records are numbered by line and blank lines are skipped
+class NdjsonUserRecordReader implements UserRecordReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader userReader;
+    private long lineNumber;
+
+    NdjsonUserRecordReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.userReader = objectMapper.readerFor(Users.class);
+    }
+
+    @Override
+    public ParsedRecord next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                Users user = userReader.readValue(line);
+                if (user == null) {
+                    return ParsedRecord.invalid(lineNumber, "User is required");
+                }
+                user.setId(null); // Imported users are always new
+                return ParsedRecord.of(lineNumber, user);
+            } catch (JsonProcessingException e) {
+                return ParsedRecord.invalid(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
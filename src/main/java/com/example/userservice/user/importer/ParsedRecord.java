@@ -0,0 +1,15 @@
+package com.example.userservice.user.importer;
+
+import com.example.userservice.user.model.Users;
+
+// One record of an upload, numbered from 1, holding either the parsed user or the reason it could not be parsed
+public record ParsedRecord(long number, Users user, String error) {
+
+    public static ParsedRecord of(long number, Users user) {
+        return new ParsedRecord(number, user, null);
+    }
+
+    public static ParsedRecord invalid(long number, String error) {
+        return new ParsedRecord(number, null, error);
+    }
+}
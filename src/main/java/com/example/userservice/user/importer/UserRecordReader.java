@@ -0,0 +1,25 @@
+package com.example.userservice.user.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+// Reads users from an upload one record at a time, so memory use does not depend on the upload size
+public interface UserRecordReader extends Closeable {
+
+    // Return the next record, or null once the upload is exhausted
+    ParsedRecord next() throws IOException;
+
+    static UserRecordReader open(ImportFormat format, InputStream in, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return switch (format) {
+            case CSV -> new CsvUserRecordReader(reader);
+            case NDJSON -> new NdjsonUserRecordReader(reader, objectMapper);
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.userservice.user.limiter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Concurrency limit that follows the latency of the requests it lets through (gradient algorithm, as in Netflix's
+// concurrency-limits Gradient2). Every sample window, the average latency of the window (short RTT) is compared with a
+// slow moving average of past windows (long RTT): while they match the limit grows by about sqrt(limit), and when
+// requests start queueing behind a slow database the short RTT rises and the limit shrinks in proportion.
+public class AdaptiveConcurrencyLimit {
+
+    // How much the short RTT may exceed the long one before the limit shrinks
+    private static final double TOLERANCE = 1.5;
+    // Weight of each new limit, so one noisy window cannot halve the limit
+    private static final double SMOOTHING = 0.2;
+    // Windows averaged by the long RTT
+    private static final int LONG_WINDOWS = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile double limit;
+
+    // Current window and long RTT, guarded by this
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration window, int minWindowSamples) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min-limit <= max-limit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = window.toNanos();
+        this.minWindowSamples = minWindowSamples;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.windowStart = System.nanoTime();
+    }
+
+    // Take a slot if fewer requests than the limit are in flight; a request that gets none is counted as dropped
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Give a slot back, with the latency of the request it served
+    public void release(long rttNanos) {
+        int inflightBefore = inflight.getAndDecrement();
+        sample(rttNanos, inflightBefore);
+    }
+
+    // Give a slot back without a latency sample, for requests whose duration says nothing about load (streams)
+    public void releaseWithoutSample() {
+        inflight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private synchronized void sample(long rttNanos, int inflightBefore) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        long now = System.nanoTime();
+        if (windowSamples < minWindowSamples || now - windowStart < windowNanos) {
+            return;
+        }
+
+        double shortRtt = (double) windowRttSum / windowSamples;
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        update(shortRtt, inflightBefore);
+    }
+
+    private void update(double shortRtt, int inflightBefore) {
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) * 2 / (LONG_WINDOWS + 1);
+        }
+        // After a long slow period, let the baseline come back down quickly once latency recovers
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        // Only grow while the limit is actually being used, or an idle node would drift up to max-limit
+        double current = limit;
+        if (inflightBefore < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double queueSize = Math.sqrt(current);
+        double target = current * gradient + queueSize;
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
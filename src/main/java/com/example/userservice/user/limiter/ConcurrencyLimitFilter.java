@@ -0,0 +1,115 @@
+package com.example.userservice.user.limiter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+// Load shedding in front of the user endpoints: reads and writes each get an adaptive concurrency limit, and a request
+// over its limit is answered 503 with Retry-After straight away, instead of queueing in Tomcat until every request is slow.
+// Writes are limited apart from reads, so a burst of signups (bcrypt) cannot starve lookups, and the other way round.
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    public static final String REJECTED_MESSAGE = "Service busy, try again later";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final AdaptiveConcurrencyLimit readLimit;
+    private final AdaptiveConcurrencyLimit writeLimit;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit readLimit, AdaptiveConcurrencyLimit writeLimit, Duration retryAfter) {
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimit limit = SAFE_METHODS.contains(request.getMethod()) ? readLimit : writeLimit;
+        if (!limit.tryAcquire()) {
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // Streaming responses (the export) hold their slot until they complete, but their duration is not a sample
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limit));
+            } else {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "read", readLimit);
+        bind(registry, "write", writeLimit);
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(REJECTED_MESSAGE);
+    }
+
+    private static void bind(MeterRegistry registry, String type, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("userservice.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("type", type)
+                .description("Current adaptive limit of concurrent requests")
+                .register(registry);
+        Gauge.builder("userservice.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInflight)
+                .tag("type", type)
+                .description("Requests currently holding a slot")
+                .register(registry);
+        FunctionCounter.builder("userservice.concurrency.dropped", limit, AdaptiveConcurrencyLimit::getDropped)
+                .tag("type", type)
+                .description("Requests rejected with 503 because the limit was reached")
+                .register(registry);
+    }
+
+    private record ReleaseOnComplete(AdaptiveConcurrencyLimit limit) implements AsyncListener {
+
+        // Called once the async request ends, after a timeout or an error too
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limit.releaseWithoutSample();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
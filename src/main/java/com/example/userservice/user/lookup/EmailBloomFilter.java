@@ -0,0 +1,269 @@
+package com.example.userservice.user.lookup;
+
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.sharding.UserShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter over every registered (normalized) email, so lookups of unknown emails can be answered without a query.
+// It never gives false negatives once built: a "definitely absent" answer is final, anything else goes to the database.
+// Emails are added as users are inserted or renamed (UserEmailListener); deleted emails stay in the filter until
+// the periodic rebuild from a streaming scan of the table drops them.
+// The filter is local to each node: it only learns of the users written through this node, so with several nodes a user
+// created on another one is reported absent here (GET answers 404) until the next rebuild. It is therefore off unless
+// userservice.email-filter.enabled=true, which only suits deployments where a single node writes users. Only lookups
+// consult it; duplicate checks on writes always ask the database.
+@Component
+public class EmailBloomFilter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserShards userShards;
+    private final boolean enabled;
+    private final long capacity;
+    private final double falsePositiveRate;
+    private final ScheduledExecutorService scheduler;
+    private final Duration rebuildInterval;
+
+    // Null until the first build completes; until then nothing is reported as absent
+    private volatile Bits current;
+    // Set while a rebuild scans the table, so emails added meanwhile are not lost in the swap
+    private volatile Bits building;
+
+    private Counter definiteMisses;
+    private Counter passedThrough;
+
+    @Autowired
+    public EmailBloomFilter(DataSource dataSource,
+                            UserShards userShards,
+                            @Value("${userservice.email-filter.enabled:false}") boolean enabled,
+                            @Value("${userservice.email-filter.capacity:1000000}") long capacity,
+                            @Value("${userservice.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                            @Value("${userservice.email-filter.rebuild-interval:1h}") Duration rebuildInterval) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+        this.userShards = userShards;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Build the filter once the application (including startup seeding) is ready, then rebuild it periodically
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        rebuild();
+        long interval = rebuildInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    // Whether the email is certainly not registered, in which case the caller can skip the database
+    public boolean isDefinitelyAbsent(String email) {
+        Bits bits = current;
+        if (bits == null || email == null) {
+            return false;
+        }
+        boolean absent = !bits.mightContain(Users.normalizeEmail(email));
+        if (definiteMisses != null) {
+            (absent ? definiteMisses : passedThrough).increment();
+        }
+        return absent;
+    }
+
+    // Record an email that is being written. When called inside a transaction the email is added again after commit,
+    // so a rebuild that scanned the table before the commit cannot drop it.
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        String emailKey = Users.normalizeEmail(email);
+        addNow(emailKey);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(emailKey);
+                }
+            });
+        }
+    }
+
+    // Replace the filter with one built from a scan of every registered email, on every shard
+    public void rebuild() {
+        long start = System.nanoTime();
+        Bits fresh = new Bits(capacity, falsePositiveRate);
+        building = fresh;
+        try {
+            for (int shard = 0; shard < userShards.count(); shard++) {
+                userShards.onShard(shard, () -> {
+                    jdbcTemplate.query("select email_key from \"user\"", row -> {
+                        fresh.add(row.getString(1));
+                    });
+                    return null;
+                });
+            }
+            current = fresh;
+        } finally {
+            building = null;
+        }
+        log.info("Built email filter with {} emails in {} ms ({} bits, {} hashes, {}% of bits set)",
+                fresh.insertions.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                fresh.size, fresh.hashes, Math.round(fresh.fillRatio() * 100));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("userservice.email.filter.fill.ratio", this, filter -> filter.current == null ? 0 : filter.current.fillRatio())
+                .description("Fraction of bits set; the false positive rate climbs quickly past 0.5")
+                .register(registry);
+        Gauge.builder("userservice.email.filter.false.positive.rate", this, filter -> filter.current == null ? 0 : filter.current.expectedFalsePositiveRate())
+                .description("False positive rate expected from the current fill ratio")
+                .register(registry);
+        Gauge.builder("userservice.email.filter.insertions", this, filter -> filter.current == null ? 0 : filter.current.insertions.get())
+                .description("Emails added since the last rebuild, deleted ones included")
+                .register(registry);
+        Gauge.builder("userservice.email.filter.capacity", this, filter -> filter.capacity)
+                .description("Number of emails the filter is sized for")
+                .register(registry);
+        definiteMisses = Counter.builder("userservice.email.filter.lookups")
+                .tag("result", "absent")
+                .description("Lookups answered by the filter without a query")
+                .register(registry);
+        passedThrough = Counter.builder("userservice.email.filter.lookups")
+                .tag("result", "maybe")
+                .description("Lookups the filter had to pass to the database")
+                .register(registry);
+    }
+
+    // The rebuild publishes current before it clears building, so reading them in the opposite order never misses both:
+    // a null building means the fresh filter is already current, or the scan has not started and will see the row.
+    private void addNow(String email) {
+        Bits next = building;
+        if (next != null) {
+            next.add(email);
+        }
+        Bits bits = current;
+        if (bits != null && bits != next) {
+            bits.add(email);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the email filter, keeping the current one", e);
+        }
+    }
+
+    // Lock-free bit array with k probes derived from one 64-bit hash (Kirsch-Mitzenmacher double hashing)
+    static final class Bits {
+
+        final long size;
+        final int hashes;
+        final AtomicLong insertions = new AtomicLong();
+        private final AtomicLongArray words;
+        private final AtomicLong bitsSet = new AtomicLong();
+
+        Bits(long capacity, double falsePositiveRate) {
+            // Optimal sizing: m = -n ln(p) / ln(2)^2 bits and k = m/n ln(2) hashes
+            long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.size = Math.max(64, (bits + 63) / 64 * 64);
+            this.hashes = Math.max(1, (int) Math.round((double) size / capacity * Math.log(2)));
+            this.words = new AtomicLongArray(Math.toIntExact(size / 64));
+        }
+
+        void add(String email) {
+            long hash = hash(email);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % size;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old;
+                do {
+                    old = words.get(word);
+                    if ((old & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, old, old | mask));
+                if ((old & mask) == 0) {
+                    bitsSet.incrementAndGet();
+                }
+            }
+            insertions.incrementAndGet();
+        }
+
+        boolean mightContain(String email) {
+            long hash = hash(email);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % size;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double fillRatio() {
+            return (double) bitsSet.get() / size;
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow(fillRatio(), hashes);
+        }
+
+        // FNV-1a over the UTF-16 chars, finished with the MurmurHash3 mixer to spread the bits
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
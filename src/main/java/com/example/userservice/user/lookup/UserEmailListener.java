@@ -0,0 +1,27 @@
+package com.example.userservice.user.lookup;
+
+import com.example.userservice.user.model.Users;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Keeps the email filter in step with every insert and rename, whichever code path writes the user.
+// Hibernate gets this listener from the Spring context; in slices without the filter (@DataJpaTest) it does nothing.
+@Component
+public class UserEmailListener {
+
+    private final ObjectProvider<EmailBloomFilter> emailFilter;
+
+    @Autowired
+    public UserEmailListener(ObjectProvider<EmailBloomFilter> emailFilter) {
+        this.emailFilter = emailFilter;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void emailWritten(Users user) {
+        emailFilter.ifAvailable(filter -> filter.add(user.getEmail()));
+    }
+}
@@ -1,34 +1,62 @@
 package com.example.userservice.user.model;
 
+import com.example.userservice.user.lookup.UserEmailListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.annotation.Nullable;
 import jakarta.persistence.*;
-import jakarta.validation.constraints.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.util.Locale;
 
 @Entity
-@Table(name = "`user`")
+@EntityListeners(UserEmailListener.class) // Adds written emails to the lookup filter
+@DynamicUpdate // UPDATE only the columns that changed, so a one-field patch is one narrow statement
+@Table(name = "`user`", uniqueConstraints = {
+        // Enforces one account per normalized email at the database level, so concurrent creates cannot race past
+        // each other; the unique index also serves every lookup by email
+        @UniqueConstraint(name = Users.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email_key")
+})
 public class Users {
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_user_email_key";
+    public static final String ID_SEQUENCE = "user_seq";
+
+    // Pooled sequence ids keep Hibernate JDBC insert batching enabled (IDENTITY would silently disable it)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = 50)
     private Long id;
 
-    @NotNull(message = "Email is mandatory")
-    @Email(message = "Email should be valid")
-    @Size(max = 100, message = "Email must be less than {max} characters long")
+    // Field rules (required, length, format) are enforced by UserValidator; the columns mirror its limits
+    @Column(nullable = false, length = 100)
     private String email;
 
-    @NotNull(message = "Password is required")
+    // The email trimmed and lower-cased, kept in step with email: Foo@Email.com and foo@email.com are one account
+    @JsonIgnore
+    @Column(name = "email_key", nullable = false, length = 100)
+    private String emailKey;
+
+    // Holds the bcrypt hash; accepted in requests but never written to responses
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @Column(nullable = false)
     private String password;
 
     @Nullable
-    @Size(max = 50, message = "First name must be less than {max} characters long")
-    @Pattern(regexp = "^[A-Za-z ]*$", message = "First name must contain only letters")
+    @Column(length = 50)
     private String firstName;
 
     @Nullable
-    @Size(max = 100, message = "Last name must be less than {max} characters long")
-    @Pattern(regexp = "^[A-Za-z ]*$", message = "Last name must contain only letters")
+    @Column(length = 100)
     private String lastName;
 
+    // Optimistic lock, bumped on every update; published as the ETag (see UserETag) rather than in the body
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+
     public Users() {
     }
 
@@ -36,10 +64,15 @@ public class Users {
     public Users(String firstName, String lastName, String email, String password) {
         this.firstName = firstName;
         this.lastName = lastName;
-        this.email = email;
+        setEmail(email);
         this.password = password;
     }
 
+    // Lookup key of an email: surrounding spaces and case are not significant
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -71,6 +104,18 @@ public class Users {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailKey = normalizeEmail(email);
+    }
+
+    public String getEmailKey() {
+        return emailKey;
+    }
+
+    // Covers entities whose email field was set without the setter (e.g. by reflection)
+    @PrePersist
+    @PreUpdate
+    void syncEmailKey() {
+        this.emailKey = normalizeEmail(email);
     }
 
     public String getPassword() {
@@ -81,6 +126,14 @@ public class Users {
         this.password = password;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "User{" +
@@ -88,7 +141,6 @@ public class Users {
                 ", firstName='" + firstName + '\'' +
                 ", lastName='" + lastName + '\'' +
                 ", email='" + email + '\'' +
-                ", password='" + password + '\'' +
                 '}';
     }
 }
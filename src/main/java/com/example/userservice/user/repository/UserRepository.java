@@ -1,24 +1,90 @@
 package com.example.userservice.user.repository;
 
+import com.example.userservice.user.dto.UserView;
 import com.example.userservice.user.model.Users;
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+// Every lookup by email goes through the normalized, uniquely indexed email_key column (see Users.normalizeEmail)
 @Repository
 public interface UserRepository extends JpaRepository<Users, Long> {
 
-    // Find a user by email
-    Optional<Users> findByEmail(String email);
+    // Find a user by email, ignoring case and surrounding spaces
+    default Optional<Users> findByEmail(String email) {
+        return findByEmailKey(Users.normalizeEmail(email));
+    }
 
-    // Check if a user exists by email
-    boolean existsByEmail(String email);
+    Optional<Users> findByEmailKey(String emailKey);
 
-    // Delete a user by email
+    // Find the public columns of a user by email, for reads: a constructor expression, so no entity is hydrated or
+    // attached to the persistence context, and the password column is never selected
+    default Optional<UserView> findViewByEmail(String email) {
+        return findViewByEmailKey(Users.normalizeEmail(email));
+    }
+
+    @Query("select new com.example.userservice.user.dto.UserView(u.id, u.email, u.firstName, u.lastName, u.version) "
+            + "from Users u where u.emailKey = :emailKey")
+    Optional<UserView> findViewByEmailKey(@Param("emailKey") String emailKey);
+
+    // Check if a user exists by email, ignoring case and surrounding spaces
+    default boolean existsByEmail(String email) {
+        return existsByEmailKey(Users.normalizeEmail(email));
+    }
+
+    boolean existsByEmailKey(String emailKey);
+
+    // Find which of the given normalized emails are already registered, in a single query
+    @Query("select u.emailKey from Users u where u.emailKey in :emailKeys")
+    List<String> findExistingEmailKeys(@Param("emailKeys") Collection<String> emailKeys);
+
+    // Find the users that come after the given id, in id order (keyset pagination, no OFFSET scan)
+    Slice<Users> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Stream every user in id order, fetching rows from the database in batches instead of loading them all
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from Users u order by u.id")
+    Stream<Users> streamAllByOrderByIdAsc();
+
+    // Delete a user by email in a single statement, without loading it, and return the number of deleted rows
+    default int deleteByEmail(String email) {
+        return deleteByEmailKey(Users.normalizeEmail(email));
+    }
+
+    @Modifying
+    @Transactional
+    @Query("delete from Users u where u.emailKey = :emailKey")
+    int deleteByEmailKey(@Param("emailKey") String emailKey);
+
+    // Delete a user only if it still has the given version, returning 0 when it was changed or deleted meanwhile
+    default int deleteByEmailAndVersion(String email, Long version) {
+        return deleteByEmailKeyAndVersion(Users.normalizeEmail(email), version);
+    }
+
+    @Modifying
+    @Transactional
+    @Query("delete from Users u where u.emailKey = :emailKey and u.version = :version")
+    int deleteByEmailKeyAndVersion(@Param("emailKey") String emailKey, @Param("version") Long version);
+
+    // Delete every user with one of the given normalized emails in a single statement and return the number of deleted rows
     @Modifying
     @Transactional
-    void deleteByEmail(String email);
-}
\ No newline at end of file
+    @Query("delete from Users u where u.emailKey in :emailKeys")
+    int deleteByEmailKeyIn(@Param("emailKeys") Collection<String> emailKeys);
+}
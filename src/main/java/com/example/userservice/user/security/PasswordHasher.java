@@ -0,0 +1,173 @@
+package com.example.userservice.user.security;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Hashes and verifies passwords with bcrypt on a dedicated pool sized to the cores.
+// Each hash costs tens of milliseconds of CPU, so the pool caps how many run at once and its bounded queue
+// sheds load (RejectedExecutionException) instead of letting request threads pile up behind it.
+@Component
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private static final int MIN_COST = 4;
+    private static final int MAX_COST = 31;
+
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final int cost;
+    private final BCryptPasswordEncoder encoder;
+    private final String unknownUserHash;
+
+    @Autowired
+    public PasswordHasher(@Value("${userservice.password.threads:0}") int threads,
+                          @Value("${userservice.password.queue-capacity:64}") int queueCapacity,
+                          @Value("${userservice.password.cost:10}") int cost,
+                          @Value("${userservice.password.target-latency:0ms}") Duration targetLatency,
+                          @Value("${userservice.password.timeout:5s}") Duration timeout) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeout = timeout;
+        this.cost = targetLatency.isZero() ? cost : calibrate(cost, targetLatency);
+        this.encoder = new BCryptPasswordEncoder(this.cost);
+        this.unknownUserHash = encoder.encode(UUID.randomUUID().toString());
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    // Hash a password on the hashing pool, waiting for the result
+    public String hash(String rawPassword) {
+        return await(executor.submit(() -> encoder.encode(rawPassword)));
+    }
+
+    // Hash many passwords in parallel on the hashing pool, for bulk creates and imports.
+    // Passwords the pool cannot take right now are hashed on the calling thread, so a bulk load slows down instead of failing.
+    public List<String> hashAll(List<String> rawPasswords) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            Callable<String> task = () -> encoder.encode(rawPassword);
+            try {
+                futures.add(executor.submit(task));
+            } catch (RejectedExecutionException e) {
+                futures.add(CompletableFuture.completedFuture(encoder.encode(rawPassword)));
+            }
+        }
+
+        List<String> hashes = new ArrayList<>(futures.size());
+        for (Future<String> future : futures) {
+            hashes.add(await(future));
+        }
+        return hashes;
+    }
+
+    // Check a password against a stored hash, for login checks.
+    // A null hash (unknown user) is checked against a throwaway hash, so both outcomes take the same time.
+    public boolean verify(String rawPassword, String hash) {
+        String storedHash = hash != null ? hash : unknownUserHash;
+        boolean matches = await(executor.submit(() -> encoder.matches(rawPassword, storedHash)));
+        return matches && hash != null;
+    }
+
+    // Non-blocking variants for the reactive API: the returned future completes on the hashing pool, so no caller
+    // thread waits for bcrypt. They shed load and time out like the blocking ones, with a RejectedExecutionException.
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submitAsync(() -> encoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> verifyAsync(String rawPassword, String hash) {
+        String storedHash = hash != null ? hash : unknownUserHash;
+        return submitAsync(() -> encoder.matches(rawPassword, storedHash))
+                .thenApply(matches -> matches && hash != null);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RejectedExecutionException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private <T> CompletableFuture<T> submitAsync(Supplier<T> task) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    return CompletableFuture.failedFuture(cause instanceof TimeoutException
+                            ? new RejectedExecutionException("Password hashing timed out") : cause);
+                });
+    }
+
+    // Pick the highest cost whose hash still fits in the target latency on this machine, never going below minCost
+    private static int calibrate(int minCost, Duration targetLatency) {
+        long targetNanos = targetLatency.toNanos();
+        new BCryptPasswordEncoder(MIN_COST).encode("warm-up"); // Load and JIT the bcrypt code first
+
+        int chosen = MIN_COST;
+        for (int candidate = MIN_COST; candidate <= MAX_COST; candidate++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(candidate).encode("calibration-password");
+            long elapsed = System.nanoTime() - start;
+            if (elapsed > targetNanos) {
+                break;
+            }
+            chosen = candidate;
+            if (elapsed * 2 > targetNanos) {
+                break; // Each extra cost step doubles the time, so the next one would overshoot
+            }
+        }
+
+        int cost = Math.max(chosen, minCost);
+        log.info("Calibrated bcrypt cost {} for a target hash latency of {}", cost, targetLatency);
+        return cost;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.userservice.user.service;
+
+import com.example.userservice.user.config.CacheConfig;
+import com.example.userservice.user.dto.BatchCreateResponse;
+import com.example.userservice.user.dto.BatchDeleteResponse;
+import com.example.userservice.user.dto.BatchItemError;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.repository.UserRepository;
+import com.example.userservice.user.security.PasswordHasher;
+import com.example.userservice.user.sharding.UserShards;
+import com.example.userservice.user.validation.UserValidator;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class UserBatchService {
+
+    private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final UserShards userShards;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+    private final int maxSize;
+    private final int chunkSize;
+
+    @Autowired
+    public UserBatchService(UserRepository userRepository,
+                            PasswordHasher passwordHasher,
+                            UserShards userShards,
+                            PlatformTransactionManager transactionManager,
+                            EntityManager entityManager,
+                            CacheManager cacheManager,
+                            @Value("${userservice.batch.max-size:50000}") int maxSize,
+                            @Value("${userservice.batch.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.userShards = userShards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.cacheManager = cacheManager;
+        this.maxSize = maxSize;
+        this.chunkSize = chunkSize;
+    }
+
+    // Validate and create a list of users, persisting them in chunks with one transaction per chunk
+    public BatchCreateResponse createUsers(List<Users> users) {
+        if (users == null || users.isEmpty() || users.size() > maxSize) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + maxSize + " users");
+        }
+
+        List<BatchItemError> errors = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+        int created = 0;
+        for (int from = 0; from < users.size(); from += chunkSize) {
+            created += createChunk(users, from, Math.min(from + chunkSize, users.size()), seenEmails, errors);
+        }
+
+        errors.sort(Comparator.comparingInt(BatchItemError::index));
+        return new BatchCreateResponse(users.size(), created, errors.size(), errors);
+    }
+
+    // Delete the users with the given emails, with one DELETE statement and one transaction per chunk and shard
+    public BatchDeleteResponse deleteUsers(List<String> emails) {
+        if (emails == null || emails.isEmpty() || emails.size() > maxSize) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + maxSize + " emails");
+        }
+
+        List<String> distinctEmails = emails.stream().filter(Objects::nonNull).map(Users::normalizeEmail).distinct().toList();
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+        int deleted = 0;
+        for (Map.Entry<Integer, List<String>> shard : groupByShard(distinctEmails, email -> email).entrySet()) {
+            List<String> emailKeys = shard.getValue();
+            for (int from = 0; from < emailKeys.size(); from += chunkSize) {
+                List<String> chunk = emailKeys.subList(from, Math.min(from + chunkSize, emailKeys.size()));
+                deleted += userShards.onShard(shard.getKey(), () ->
+                        transactionTemplate.execute(status -> userRepository.deleteByEmailKeyIn(chunk)));
+
+                // Evict after the chunk has committed, so a concurrent lookup cannot cache a deleted user again
+                if (cache != null) {
+                    chunk.forEach(cache::evict);
+                }
+            }
+        }
+
+        return new BatchDeleteResponse(distinctEmails.size(), deleted);
+    }
+
+    // Create the users between from (inclusive) and to (exclusive) and return how many were inserted
+    private int createChunk(List<Users> users, int from, int to, Set<String> seenEmails, List<BatchItemError> errors) {
+        // Validate every user of the chunk and reject emails repeated within the request
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Users user = users.get(i);
+            String error = validate(user);
+            if (error == null && !seenEmails.add(user.getEmailKey())) {
+                error = "Email already exists";
+            }
+            if (error != null) {
+                errors.add(new BatchItemError(i, user == null ? null : user.getEmail(), error));
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        // Each shard checks and inserts its own users, in its own transaction
+        int created = 0;
+        for (Map.Entry<Integer, List<Integer>> shard : groupByShard(candidates, i -> users.get(i).getEmail()).entrySet()) {
+            created += userShards.onShard(shard.getKey(), () -> createOnShard(users, shard.getValue(), errors));
+        }
+        return created;
+    }
+
+    // Create the given users, which all belong to the current shard, and return how many were inserted
+    private int createOnShard(List<Users> users, List<Integer> candidates, List<BatchItemError> errors) {
+        // Reject emails that are already registered, with one query. Not narrowed by the email filter: it only knows the
+        // users written through this node, and a write must never take its word over the database's.
+        List<String> emailKeys = candidates.stream()
+                .map(i -> users.get(i).getEmailKey())
+                .toList();
+        Set<String> existingEmails = emailKeys.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepository.findExistingEmailKeys(emailKeys));
+        List<Users> toInsert = new ArrayList<>();
+        List<Integer> toInsertIndexes = new ArrayList<>();
+        for (int i : candidates) {
+            Users user = users.get(i);
+            if (existingEmails.contains(user.getEmailKey())) {
+                errors.add(new BatchItemError(i, user.getEmail(), "Email already exists"));
+            } else {
+                toInsert.add(user);
+                toInsertIndexes.add(i);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return 0;
+        }
+
+        // Hash the passwords in parallel before opening the transaction
+        List<String> hashes = passwordHasher.hashAll(toInsert.stream().map(Users::getPassword).toList());
+        for (int i = 0; i < toInsert.size(); i++) {
+            toInsert.get(i).setPassword(hashes.get(i));
+        }
+
+        // Insert the chunk as JDBC batches in one transaction
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAllAndFlush(toInsert);
+                entityManager.clear(); // Keep the persistence context from growing with the chunk
+            });
+            return toInsert.size();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent create took one of the emails; retry one user at a time to isolate it
+            return createOneByOne(toInsert, toInsertIndexes, errors);
+        }
+    }
+
+    // Insert each user in its own transaction, recording the ones rejected by the unique email index
+    private int createOneByOne(List<Users> users, List<Integer> indexes, List<BatchItemError> errors) {
+        int created = 0;
+        for (int i = 0; i < users.size(); i++) {
+            Users user = users.get(i);
+            // Drop the id and version the rolled back chunk assigned, so the user is persisted as new rather than merged
+            user.setId(null);
+            user.setVersion(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> userRepository.saveAndFlush(user));
+                created++;
+            } catch (DataIntegrityViolationException e) {
+                errors.add(new BatchItemError(indexes.get(i), user.getEmail(), "Email already exists"));
+            }
+        }
+        return created;
+    }
+
+    // Group items by the shard of their email, in shard order
+    private <T> Map<Integer, List<T>> groupByShard(List<T> items, Function<T, String> email) {
+        return items.stream().collect(Collectors.groupingBy(item -> userShards.shardOf(email.apply(item)), TreeMap::new, Collectors.toList()));
+    }
+
+    // Run the same checks as a single create and return the error message, or null when the user is valid
+    private String validate(Users user) {
+        if (user == null) {
+            return "User is required";
+        }
+
+        return UserValidator.validateNewUser(user);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.userservice.user.service;
+
+import com.example.userservice.user.dto.UserView;
+import com.example.userservice.user.model.Users;
+
+// Strong ETags of a user, built from its id and version, so a user recreated with the same email never reuses a tag
+public final class UserETag {
+
+    // If-Match value that matches any existing user
+    public static final String ANY = "*";
+
+    private UserETag() {
+    }
+
+    public static String of(Users user) {
+        return of(user.getId(), user.getVersion());
+    }
+
+    public static String of(UserView user) {
+        return of(user.id(), user.version());
+    }
+
+    private static String of(Long id, Long version) {
+        return "\"" + id + "." + version + "\"";
+    }
+
+    // Check an If-Match header (one tag, a comma separated list or *) against the current user.
+    // Comparison is strong, as If-Match requires, so weak tags (W/"...") never match.
+    public static boolean matches(String ifMatch, Users user) {
+        String current = of(user);
+        for (String tag : ifMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals(ANY) || candidate.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.userservice.user.service;
+
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.repository.UserRepository;
+import com.example.userservice.user.sharding.UserShards;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@Service
+public class UserExportService {
+
+    // Rows buffered per shard while merging; enough to keep every shard streaming without growing the heap
+    private static final int MERGE_BUFFER_SIZE = 256;
+    private static final Users END_OF_SHARD = new Users();
+
+    private final UserRepository userRepository;
+    private final UserShards userShards;
+    private final EntityManager entityManager;
+    private final Encoding ndjson;
+    private final Encoding cborSequence;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public UserExportService(UserRepository userRepository,
+                             UserShards userShards,
+                             EntityManager entityManager,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.userShards = userShards;
+        this.entityManager = entityManager;
+        this.ndjson = new Encoding(objectMapper, true);
+        this.cborSequence = new Encoding(objectMapper.copyWith(new CBORFactory()), false);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The open stream holds a connection for the whole export, on the replica when one is configured
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    // Write every user as one JSON document per line, in id order, and return how many were written
+    public long exportUsers(OutputStream out) throws IOException {
+        return export(out, ndjson);
+    }
+
+    // Write every user as a sequence of CBOR documents (RFC 8742), in id order, and return how many were written
+    public long exportUsersAsCbor(OutputStream out) throws IOException {
+        return export(out, cborSequence);
+    }
+
+    private long export(OutputStream out, Encoding encoding) throws IOException {
+        try {
+            if (userShards.count() == 1) {
+                return transactionTemplate.execute(status -> writeUsers(out, encoding));
+            }
+            return writeUsersFromShards(out, encoding);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeUsers(OutputStream out, Encoding encoding) {
+        try (Stream<Users> users = userRepository.streamAllByOrderByIdAsc();
+             JsonGenerator generator = encoding.createGenerator(out)) {
+            long count = 0;
+            Iterator<Users> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                Users user = iterator.next();
+                encoding.writeUser(generator, user);
+                entityManager.detach(user); // Keep at most one row in the persistence context
+                count++;
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Stream every shard in parallel, each on its own thread and transaction, and merge the streams by id
+    private long writeUsersFromShards(OutputStream out, Encoding encoding) {
+        List<BlockingQueue<Users>> buffers = new ArrayList<>();
+        List<Future<?>> producers = new ArrayList<>();
+        for (int shard = 0; shard < userShards.count(); shard++) {
+            BlockingQueue<Users> buffer = new ArrayBlockingQueue<>(MERGE_BUFFER_SIZE);
+            buffers.add(buffer);
+            producers.add(userShards.submitOnShard(shard, () -> transactionTemplate.executeWithoutResult(status -> produce(buffer))));
+        }
+
+        try (JsonGenerator generator = encoding.createGenerator(out)) {
+            // Each shard is already in id order, so the next row is always the lowest id among the shards' heads
+            PriorityQueue<ShardHead> heads = new PriorityQueue<>(Comparator.comparing(head -> head.user().getId()));
+            for (int shard = 0; shard < buffers.size(); shard++) {
+                Users first = take(buffers.get(shard), producers.get(shard));
+                if (first != END_OF_SHARD) {
+                    heads.add(new ShardHead(first, shard));
+                }
+            }
+
+            long count = 0;
+            while (!heads.isEmpty()) {
+                ShardHead head = heads.poll();
+                encoding.writeUser(generator, head.user());
+                count++;
+                Users next = take(buffers.get(head.shard()), producers.get(head.shard()));
+                if (next != END_OF_SHARD) {
+                    heads.add(new ShardHead(next, head.shard()));
+                }
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            producers.forEach(producer -> producer.cancel(true)); // Stops shards still streaming when the client went away
+        }
+    }
+
+    private void produce(BlockingQueue<Users> buffer) {
+        try (Stream<Users> users = userRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Users> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                Users user = iterator.next();
+                entityManager.detach(user);
+                buffer.put(user);
+            }
+            buffer.put(END_OF_SHARD);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Next row of a shard, failing the export if the shard's stream failed
+    private static Users take(BlockingQueue<Users> buffer, Future<?> producer) {
+        try {
+            while (true) {
+                Users user = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (user != null) {
+                    return user;
+                }
+                if (producer.isDone() && buffer.isEmpty()) {
+                    producer.get();
+                    throw new IllegalStateException("Shard stream ended without its last row");
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not export a shard", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while exporting", e);
+        }
+    }
+
+    private record ShardHead(Users user, int shard) {
+    }
+
+    // How users are written: JSON documents each ended by a newline, or binary documents simply written one after another
+    private record Encoding(ObjectMapper objectMapper, ObjectWriter userWriter, boolean newlineDelimited) {
+
+        Encoding(ObjectMapper objectMapper, boolean newlineDelimited) {
+            this(objectMapper, objectMapper.writerFor(Users.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE), newlineDelimited);
+        }
+
+        JsonGenerator createGenerator(OutputStream out) throws IOException {
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET); // The servlet container owns the response stream
+            if (newlineDelimited) {
+                generator.setRootValueSeparator(null); // Lines are separated explicitly in writeUser
+            }
+            return generator;
+        }
+
+        void writeUser(JsonGenerator generator, Users user) throws IOException {
+            userWriter.writeValue(generator, user);
+            if (newlineDelimited) {
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.userservice.user.service;
+
+import com.example.userservice.user.dto.BatchCreateResponse;
+import com.example.userservice.user.dto.BatchItemError;
+import com.example.userservice.user.dto.ImportJobStatus;
+import com.example.userservice.user.importer.ImportFormat;
+import com.example.userservice.user.importer.ImportJob;
+import com.example.userservice.user.importer.ParsedRecord;
+import com.example.userservice.user.importer.UserRecordReader;
+import com.example.userservice.user.model.Users;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private final UserBatchService userBatchService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserImportService(UserBatchService userBatchService,
+                             ObjectMapper objectMapper,
+                             @Value("${userservice.import.workers:2}") int workers,
+                             @Value("${userservice.import.queue-capacity:10}") int queueCapacity,
+                             @Value("${userservice.import.chunk-size:1000}") int chunkSize,
+                             @Value("${userservice.import.retention:1h}") Duration retention) {
+        this.userBatchService = userBatchService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.retention = retention;
+
+        // Imports run on their own bounded pool, never on Tomcat threads, and are refused once the queue is full
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Spool the upload to a temporary file and queue it for import, returning the job right away
+    public ImportJobStatus startImport(InputStream body, ImportFormat format) throws IOException {
+        purgeFinishedJobs();
+
+        Path file = Files.createTempFile("user-import-", "." + format.name().toLowerCase());
+        try {
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(format);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, file));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return job.toStatus();
+    }
+
+    // Retrieve the progress of an import job
+    public Optional<ImportJobStatus> getImportStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(ImportJob::toStatus);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Parse the upload record by record and write it in chunks, each chunk in its own transaction
+    private void run(ImportJob job, Path file) {
+        job.start();
+        try (InputStream in = Files.newInputStream(file);
+             UserRecordReader reader = UserRecordReader.open(job.getFormat(), in, objectMapper)) {
+            List<Users> chunk = new ArrayList<>(chunkSize);
+            List<Long> recordNumbers = new ArrayList<>(chunkSize);
+
+            ParsedRecord record;
+            while ((record = reader.next()) != null) {
+                if (record.error() != null) {
+                    job.reject(new BatchItemError(Math.toIntExact(record.number()), null, record.error()));
+                    continue;
+                }
+
+                chunk.add(record.user());
+                recordNumbers.add(record.number());
+                if (chunk.size() == chunkSize) {
+                    writeChunk(job, chunk, recordNumbers);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(job, chunk, recordNumbers);
+            }
+
+            job.complete();
+        } catch (Exception e) {
+            log.warn("Import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}", file, e);
+            }
+        }
+    }
+
+    // Validate and insert one chunk, reporting errors against the record numbers of the upload
+    private void writeChunk(ImportJob job, List<Users> chunk, List<Long> recordNumbers) {
+        BatchCreateResponse response = userBatchService.createUsers(chunk);
+        List<BatchItemError> errors = response.errors().stream()
+                .map(error -> new BatchItemError(Math.toIntExact(recordNumbers.get(error.index())), error.email(), error.message()))
+                .toList();
+        job.recordChunk(chunk.size(), response.created(), errors);
+
+        chunk.clear();
+        recordNumbers.clear();
+    }
+
+    // Forget jobs that finished longer ago than the retention period
+    private void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+}
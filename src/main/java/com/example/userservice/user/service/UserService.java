@@ -1,79 +1,195 @@
 package com.example.userservice.user.service;
 
+import com.example.userservice.user.config.CacheConfig;
+import com.example.userservice.user.dto.UserPage;
+import com.example.userservice.user.dto.UserPatch;
+import com.example.userservice.user.dto.UserView;
+import com.example.userservice.user.exceptions.DuplicateEmails;
+import com.example.userservice.user.exceptions.UserNotFoundException;
+import com.example.userservice.user.lookup.EmailBloomFilter;
 import com.example.userservice.user.model.Users;
 import com.example.userservice.user.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import com.example.userservice.user.security.PasswordHasher;
+import com.example.userservice.user.sharding.ShardKey;
+import com.example.userservice.user.sharding.UserShardMover;
+import com.example.userservice.user.sharding.UserShards;
+import com.example.userservice.user.validation.UserValidator;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
 
 @Service
+@Timed(value = UserService.METRIC_NAME, description = "Latency of UserService methods, tagged by method and exception")
 public class UserService {
 
+    // Timer recorded for every public method, behind the cache (cache hits show up in http.server.requests and cache.gets)
+    public static final String METRIC_NAME = "userservice.service";
+
+    // Largest page a single listing call may return
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final EmailBloomFilter emailFilter;
+    private final UserShards userShards;
+    private final UserShardMover shardMover;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository,
+                       PasswordHasher passwordHasher,
+                       EmailBloomFilter emailFilter,
+                       UserShards userShards,
+                       UserShardMover shardMover) {
         this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.emailFilter = emailFilter;
+        this.userShards = userShards;
+        this.shardMover = shardMover;
     }
 
     // Define isValidEmail method
     public boolean isValidEmail(String email) {
-        // Email validation regex
-        return email.matches("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
+        return UserValidator.isValidEmail(email);
     }
 
     // Create a new user
-    @Transactional
-    public String createUser(Users user) {
-        // Validate email
-        if (user.getEmail() == null || user.getEmail().isEmpty()) {
-            throw new IllegalStateException("Email is required");
+    // Not @Transactional on purpose: the hash is computed before saveAndFlush opens its own transaction,
+    // so no connection is held while bcrypt runs
+    public String createUser(@ShardKey Users user) {
+        validateNewUser(user);
+
+        // Store only the hash of the password
+        user.setPassword(passwordHasher.hash(user.getPassword()));
+
+        // Save the user in a single round trip; the unique email index rejects duplicates, even under concurrent creates
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!DuplicateEmails.isDuplicateEmail(e)) {
+                throw e;
+            }
+            throw new IllegalStateException("Email already exists");
         }
-        if (!isValidEmail(user.getEmail())) {
-            throw new IllegalStateException("Email should be valid");
+
+        // Return success message
+        return "The user was created successfully";
+    }
+
+    // Validate the fields of a user that is about to be created
+    public void validateNewUser(Users user) {
+        String error = UserValidator.validateNewUser(user);
+        if (error != null) {
+            throw new IllegalStateException(error);
         }
+    }
+
+
+    // Retrieves the public fields of a user by email, served from the cache when present.
+    // Read-only, so it runs on the replica when one is configured; the row is selected straight into a UserView.
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, key = CacheConfig.EMAIL_KEY, condition = CacheConfig.NOT_PINNED_TO_PRIMARY)
+    @Transactional(readOnly = true)
+    public UserView getUserByEmail(@ShardKey String email, String message) {
+        String defaultMessage = message == null || message.isEmpty() ? "User with email " + email + " does not exist" : message;
 
-        // Validate password
-        if (user.getPassword() == null || user.getPassword().isEmpty()) {
-            throw new IllegalStateException("Password is required");
+        // Unregistered emails (signup probes, typos) are answered by the filter without a query
+        if (emailFilter.isDefinitelyAbsent(email)) {
+            throw new UserNotFoundException(defaultMessage);
         }
-        if (user.getPassword().length() < 8 || user.getPassword().length() > 20) {
-            throw new IllegalStateException("Password must be between 8 and 20 characters");
+
+        return userRepository.findViewByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException(defaultMessage));
+    }
+
+    // Same lookup as getUserByEmail with the outcome as a value: an unknown email is an empty Optional, not an exception.
+    // For hot paths where a miss is routine (GET probes), since even a stackless exception is wrapped in a fresh
+    // InvocationTargetException at every proxy it crosses. Shares the cache with getUserByEmail; misses are not cached.
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, key = CacheConfig.EMAIL_KEY, condition = CacheConfig.NOT_PINNED_TO_PRIMARY, unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<UserView> findUserByEmail(@ShardKey String email) {
+        if (emailFilter.isDefinitelyAbsent(email)) {
+            return Optional.empty();
         }
+        return userRepository.findViewByEmail(email);
+    }
 
-        // Check if email already exists
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new IllegalStateException("Email already exists");
+    // List users ordered by id, starting after the position encoded in the cursor
+    @Transactional(readOnly = true)
+    public UserPage listUsers(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
         }
 
-        // Save the user
-        userRepository.save(user);
+        long afterId = cursor == null || cursor.isEmpty() ? 0L : decodeCursor(cursor);
 
-        // Return success message
-        return "The user was created successfully";
+        // Every shard returns its next page in parallel; the page is made of the lowest ids among them
+        List<Slice<Users>> slices = userShards.onEachShard(shard ->
+                userRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size)));
+        List<Users> merged = slices.size() == 1 ? slices.get(0).getContent() : slices.stream()
+                .flatMap(slice -> slice.getContent().stream())
+                .sorted(Comparator.comparing(Users::getId))
+                .toList();
+        boolean hasNext = merged.size() > size || slices.stream().anyMatch(Slice::hasNext);
+
+        List<Users> users = merged.size() > size ? merged.subList(0, size) : merged;
+        String nextCursor = hasNext ? encodeCursor(users.get(users.size() - 1).getId()) : null;
+        return new UserPage(users, nextCursor);
     }
 
+    // The cursor is the last id of the previous page, kept opaque to clients (shared with the reactive variant)
+    public static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
 
-    // Retrieves a user from the repository by email
-    public Users getUserByEmail(String email, String message) {
-        String defaultMessage = message == null || message.isEmpty() ? "User with email " + email + " does not exist" : message;
+    public static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
 
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalStateException(message));
+    // Check a password for the user with the given email, for future login checks
+    public boolean verifyPassword(@ShardKey String email, String rawPassword) {
+        String hash = emailFilter.isDefinitelyAbsent(email) ? null : userRepository.findByEmail(email)
+                .map(Users::getPassword)
+                .orElse(null);
+        return passwordHasher.verify(rawPassword, hash);
     }
 
-    // Update a existing user
+    // Update a existing user, evicting both the old and the new email from the cache.
+    // With an If-Match value the update only applies to that version of the user.
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = CacheConfig.EMAIL_KEY),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "T(com.example.userservice.user.model.Users).normalizeEmail(#updatedUser.email)", condition = "#updatedUser.email != null")
+    })
     @Transactional
-    public void updateUser(String email, Users updatedUser) {
-        Users existingUser = getUserByEmail(email, "User with email " + email + " does not exist");
+    public void updateUser(@ShardKey String email, Users updatedUser, String ifMatch) {
+        Users existingUser = userRepository.findByEmail(email)
+                .orElseThrow(() -> UserNotFoundException.forEmail(email));
+        checkIfMatch(existingUser, ifMatch);
 
         boolean isUpdated = false;
 
         // Validate and update email
         String newEmail = updatedUser.getEmail();
         if (newEmail != null && !newEmail.isEmpty()) {
-            if (!newEmail.equals(existingUser.getEmail()) &&
-                    userRepository.existsByEmail(newEmail)) {
+            rejectIfInvalid(UserValidator.validateEmail(newEmail));
+            // Compared by normalized key: a change of case only is still the user's own email
+            if (!Users.normalizeEmail(newEmail).equals(existingUser.getEmailKey()) && userRepository.existsByEmail(newEmail)) {
                 throw new IllegalArgumentException("Email already exists");
             }
             existingUser.setEmail(newEmail);
@@ -83,19 +199,15 @@ public class UserService {
         // Validate and update password
         String newPassword = updatedUser.getPassword();
         if (newPassword != null && !newPassword.isEmpty()) {
-            if (newPassword.length() < 8 || newPassword.length() > 20) {
-                throw new IllegalArgumentException("Password must be between 8 and 20 characters");
-            }
-            existingUser.setPassword(newPassword);
+            rejectIfInvalid(UserValidator.validatePassword(newPassword));
+            existingUser.setPassword(passwordHasher.hash(newPassword));
             isUpdated = true;
         }
 
         // Validate and update first name
         if (updatedUser.getFirstName() != null && !updatedUser.getFirstName().isEmpty() &&
                 !updatedUser.getFirstName().equals(existingUser.getFirstName())) {
-            if (updatedUser.getFirstName().length() > 50) {
-                throw new IllegalArgumentException("First name must be less than 50 characters long");
-            }
+            rejectIfInvalid(UserValidator.validateFirstName(updatedUser.getFirstName()));
             existingUser.setFirstName(updatedUser.getFirstName());
             isUpdated = true;
         }
@@ -103,9 +215,7 @@ public class UserService {
         // Validate and update last name
         if (updatedUser.getLastName() != null && !updatedUser.getLastName().isEmpty() &&
                 !updatedUser.getLastName().equals(existingUser.getLastName())) {
-            if (updatedUser.getLastName().length() > 100) {
-                throw new IllegalArgumentException("Last name must be less than 100 characters long");
-            }
+            rejectIfInvalid(UserValidator.validateLastName(updatedUser.getLastName()));
             existingUser.setLastName(updatedUser.getLastName());
             isUpdated = true;
         }
@@ -115,16 +225,108 @@ public class UserService {
             throw new IllegalArgumentException("No fields updated");
         }
 
-        // Save the updated user
-        userRepository.save(existingUser);
+        // The user is managed by the transaction, so the changes are flushed on commit without calling save
+        moveIfRehashed(email, existingUser);
     }
 
-    // Delete a user from the repository by email
+    // Apply a JSON Merge Patch to an existing user, validating only the supplied fields.
+    // Only the columns that actually change are written, in one UPDATE on commit.
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = CacheConfig.EMAIL_KEY),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "T(com.example.userservice.user.model.Users).normalizeEmail(#patch.get('email'))", condition = "#patch.get('email') != null")
+    })
     @Transactional
-    public void deleteUser(String email) {
+    public void patchUser(@ShardKey String email, UserPatch patch, String ifMatch) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("No fields updated");
+        }
+
+        // Validate every supplied field before touching the database
+        if (patch.has(UserPatch.EMAIL)) {
+            rejectIfInvalid(UserValidator.validateEmail(patch.get(UserPatch.EMAIL)));
+        }
+        if (patch.has(UserPatch.PASSWORD)) {
+            rejectIfInvalid(UserValidator.validatePassword(patch.get(UserPatch.PASSWORD)));
+        }
+        if (patch.has(UserPatch.FIRST_NAME)) {
+            rejectIfInvalid(UserValidator.validateFirstName(patch.get(UserPatch.FIRST_NAME)));
+        }
+        if (patch.has(UserPatch.LAST_NAME)) {
+            rejectIfInvalid(UserValidator.validateLastName(patch.get(UserPatch.LAST_NAME)));
+        }
+
         Users user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalStateException("User with email " + email + " does not exist"));
+                .orElseThrow(() -> UserNotFoundException.forEmail(email));
+        checkIfMatch(user, ifMatch);
 
-        userRepository.delete(user);
+        String newEmail = patch.get(UserPatch.EMAIL);
+        if (newEmail != null && !newEmail.equals(user.getEmail())) {
+            // Compared by normalized key: a change of case only is still the user's own email
+            if (!Users.normalizeEmail(newEmail).equals(user.getEmailKey()) && userRepository.existsByEmail(newEmail)) {
+                throw new IllegalArgumentException("Email already exists");
+            }
+            user.setEmail(newEmail);
+        }
+        if (patch.has(UserPatch.PASSWORD)) {
+            user.setPassword(passwordHasher.hash(patch.get(UserPatch.PASSWORD)));
+        }
+        if (patch.has(UserPatch.FIRST_NAME)) {
+            user.setFirstName(patch.get(UserPatch.FIRST_NAME));
+        }
+        if (patch.has(UserPatch.LAST_NAME)) {
+            user.setLastName(patch.get(UserPatch.LAST_NAME));
+        }
+
+        // Dirty checking flushes the changed columns on commit; unchanged values cause no UPDATE at all
+        moveIfRehashed(email, user);
+    }
+
+    // A new email can belong to another shard: the user then moves there with its changes instead of being updated in place.
+    // The email was only checked on this shard, so a taken one shows up as a violation of the unique index over there.
+    private void moveIfRehashed(String email, Users user) {
+        int from = userShards.shardOf(email);
+        int to = userShards.shardOf(user.getEmail());
+        if (from != to) {
+            try {
+                shardMover.move(user, from, to);
+            } catch (DataIntegrityViolationException e) {
+                throw new IllegalArgumentException("Email already exists");
+            }
+        }
+    }
+
+    // Reject a change made against another version of the user than the current one.
+    // Between this check and the commit the version column still guards the UPDATE, so a concurrent change fails too.
+    private static void checkIfMatch(Users user, String ifMatch) {
+        if (ifMatch != null && !UserETag.matches(ifMatch, user)) {
+            throw new OptimisticLockingFailureException("User with email " + user.getEmail() + " has been modified");
+        }
+    }
+
+    // Reject an update whose field failed validation
+    private static void rejectIfInvalid(String error) {
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    // Delete a user from the repository by email with a single DELETE statement.
+    // With an If-Match value only that version of the user is deleted.
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = CacheConfig.EMAIL_KEY)
+    @Transactional
+    public void deleteUser(@ShardKey String email, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals(UserETag.ANY)) {
+            if (userRepository.deleteByEmail(email) == 0) {
+                throw UserNotFoundException.forEmail(email);
+            }
+            return;
+        }
+
+        Users user = userRepository.findByEmail(email)
+                .orElseThrow(() -> UserNotFoundException.forEmail(email));
+        checkIfMatch(user, ifMatch);
+        if (userRepository.deleteByEmailAndVersion(email, user.getVersion()) == 0) {
+            throw new OptimisticLockingFailureException("User with email " + email + " has been modified");
+        }
     }
 }
@@ -0,0 +1,13 @@
+package com.example.userservice.user.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks the first parameter of a service method (an email, or a user carrying one) as the key of the shard it runs on.
+// The method, including the transaction it opens, then runs with every connection taken from that shard.
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
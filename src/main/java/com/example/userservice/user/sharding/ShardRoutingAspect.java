@@ -0,0 +1,33 @@
+package com.example.userservice.user.sharding;
+
+import com.example.userservice.user.model.Users;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Runs methods whose first parameter is a @ShardKey on the shard of that email.
+// Ordered inside the cache (a hit needs no shard) and outside the transaction, which must begin on the shard.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ShardRoutingAspect {
+
+    private final UserShards shards;
+
+    public ShardRoutingAspect(UserShards shards) {
+        this.shards = shards;
+    }
+
+    @Around("execution(* *(@com.example.userservice.user.sharding.ShardKey (*), ..))")
+    public Object routeToShard(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object key = joinPoint.getArgs()[0];
+        String email = key instanceof Users user ? user.getEmail() : (String) key;
+        if (email == null || shards.count() == 1) {
+            return joinPoint.proceed(); // Left to validation, or nothing to route
+        }
+        return shards.onShard(shards.shardOf(email), joinPoint::proceed);
+    }
+}
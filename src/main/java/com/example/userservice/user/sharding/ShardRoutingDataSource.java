@@ -0,0 +1,27 @@
+package com.example.userservice.user.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Hands out connections of the shard selected with UserShards.onShard. Connections taken outside of it
+// (schema creation at startup, the first shard's share of a fan-out) come from shard 0.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(UserShards shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.count(); shard++) {
+            targets.put(shard, shards.dataSource(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.dataSource(0));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = UserShards.currentShard();
+        return shard == null ? 0 : shard;
+    }
+}
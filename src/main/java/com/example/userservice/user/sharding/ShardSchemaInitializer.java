@@ -0,0 +1,55 @@
+package com.example.userservice.user.sharding;
+
+import com.example.userservice.user.model.Users;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Set;
+
+// Hibernate creates the schema (spring.jpa.hibernate.ddl-auto) on the first shard only; this creates it on the others.
+// Each shard's id sequence starts at shard << SEQUENCE_SHIFT, so ids stay unique across shards and a user keeps its id
+// when it moves. With ddl-auto none or validate the schema is left to migrations, which must apply the same offsets.
+public class ShardSchemaInitializer implements Integrator {
+
+    static final int SEQUENCE_SHIFT = 40; // About 10^12 ids per shard
+
+    private static final Set<String> CREATE_ACTIONS = Set.of("create", "create-drop");
+
+    private final UserShards shards;
+
+    public ShardSchemaInitializer(UserShards shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        Object action = sessionFactory.getProperties().get(AvailableSettings.HBM2DDL_AUTO);
+        if (action == null || !CREATE_ACTIONS.contains(action.toString())) {
+            return;
+        }
+
+        for (int shard = 1; shard < shards.count(); shard++) {
+            // Connections of the schema tool go through the routing DataSource, so they come from the selected shard
+            // The drop on shutdown of create-drop is not registered: it only matters for in-memory shards, gone anyway
+            shards.onShard(shard, () -> {
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                        new HashMap<>(sessionFactory.getProperties()), dropAction -> {
+                        });
+                return null;
+            });
+            new JdbcTemplate(shards.dataSource(shard))
+                    .execute("alter sequence " + Users.ID_SEQUENCE + " restart with " + (((long) shard << SEQUENCE_SHIFT) + 1));
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
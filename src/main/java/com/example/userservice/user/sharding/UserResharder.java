@@ -0,0 +1,99 @@
+package com.example.userservice.user.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Puts every user on the shard of its email: run it after adding shards to userservice.sharding.shards (only the users
+// hashed to the new shards move, about 1/N of them) or to repair a move interrupted between its two commits.
+// Each shard is scanned in id order, a page at a time, and rows are moved one by one, so the service keeps serving.
+public class UserResharder {
+
+    private static final Logger log = LoggerFactory.getLogger(UserResharder.class);
+    private static final int PAGE_SIZE = 1000;
+
+    private final UserShards shards;
+    private final UserShardMover mover;
+
+    public UserResharder(UserShards shards, UserShardMover mover) {
+        this.shards = shards;
+        this.mover = mover;
+    }
+
+    public ReshardReport reshard() {
+        long scanned = 0;
+        long moved = 0;
+        long duplicatesRemoved = 0;
+        long failed = 0;
+        for (int shard = 0; shard < shards.count(); shard++) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(shards.dataSource(shard));
+            long afterId = 0;
+            List<Map<String, Object>> page;
+            do {
+                page = jdbcTemplate.queryForList(
+                        "select id, email_key, version from \"user\" where id > ? order by id limit " + PAGE_SIZE, afterId);
+                Map<Long, Long> copies = findCopiesOnOtherShards(shard, page);
+                for (Map<String, Object> row : page) {
+                    long id = ((Number) row.get("ID")).longValue();
+                    long version = ((Number) row.get("VERSION")).longValue();
+                    afterId = id;
+                    scanned++;
+
+                    // The same id on two shards is an interrupted move: the copy carries the higher version
+                    Long copyVersion = copies.get(id);
+                    if (copyVersion != null && copyVersion > version) {
+                        mover.deleteRow(shard, id);
+                        duplicatesRemoved++;
+                        continue;
+                    }
+
+                    int target = shards.shardOf((String) row.get("EMAIL_KEY"));
+                    if (target == shard || copyVersion != null) {
+                        continue; // In place, or the stale half is on the other shard and is dropped when it is scanned
+                    }
+                    try {
+                        if (mover.moveRow(id, version, shard, target, Map.of())) {
+                            moved++;
+                        }
+                    } catch (DataIntegrityViolationException e) {
+                        log.warn("Could not move user {} to shard {}: its email is taken there", id, target);
+                        failed++;
+                    }
+                }
+            } while (page.size() == PAGE_SIZE);
+        }
+
+        ReshardReport report = new ReshardReport(scanned, moved, duplicatesRemoved, failed);
+        log.info("Resharded {} shards: {}", shards.count(), report);
+        return report;
+    }
+
+    // Versions of the page's ids found on the other shards, keyed by id
+    private Map<Long, Long> findCopiesOnOtherShards(int shard, List<Map<String, Object>> page) {
+        Map<Long, Long> copies = new HashMap<>();
+        if (page.isEmpty()) {
+            return copies;
+        }
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", page.stream().map(row -> row.get("ID")).toList());
+        for (int other = 0; other < shards.count(); other++) {
+            if (other != shard) {
+                new NamedParameterJdbcTemplate(shards.dataSource(other))
+                        .query("select id, version from \"user\" where id in (:ids)", ids,
+                                row -> {
+                                    copies.merge(row.getLong(1), row.getLong(2), Math::max);
+                                });
+            }
+        }
+        return copies;
+    }
+
+    public record ReshardReport(long scanned, long moved, long duplicatesRemoved, long failed) {
+    }
+}
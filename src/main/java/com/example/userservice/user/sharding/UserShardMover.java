@@ -0,0 +1,154 @@
+package com.example.userservice.user.sharding;
+
+import com.example.userservice.user.lookup.EmailBloomFilter;
+import com.example.userservice.user.model.Users;
+import jakarta.persistence.EntityManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.support.SQLExceptionSubclassTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Moves user rows between shards, for email changes that rehash a user and for resharding.
+// Rows are copied column by column over plain JDBC, so the move does not depend on the entity mapping.
+@Component
+public class UserShardMover {
+
+    private static final String TABLE = "\"user\"";
+
+    private final UserShards shards;
+    private final EntityManager entityManager;
+    private final EmailBloomFilter emailFilter;
+    private final SQLExceptionTranslator exceptionTranslator = new SQLExceptionSubclassTranslator();
+
+    public UserShardMover(UserShards shards, EntityManager entityManager, EmailBloomFilter emailFilter) {
+        this.shards = shards;
+        this.entityManager = entityManager;
+        this.emailFilter = emailFilter;
+    }
+
+    // Move a user loaded on one shard to another, writing its pending changes (the new email included) with it.
+    // The user is detached first, so the caller's transaction does not also update it in place.
+    public void move(Users user, int from, int to) {
+        entityManager.detach(user);
+
+        Map<String, Object> changes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        changes.put("email", user.getEmail());
+        changes.put("email_key", user.getEmailKey());
+        changes.put("password", user.getPassword());
+        changes.put("first_name", user.getFirstName());
+        changes.put("last_name", user.getLastName());
+        changes.put("version", user.getVersion() + 1); // A new ETag, as for an update in place
+        if (!moveRow(user.getId(), user.getVersion(), from, to, changes)) {
+            throw new OptimisticLockingFailureException("User with email " + user.getEmail() + " has been modified");
+        }
+        emailFilter.add(user.getEmail());
+    }
+
+    // Move one row in two local transactions held open together, committing the copy before the delete.
+    // A failure before the first commit leaves the row where it was, and a failed commit of the delete is compensated
+    // by removing the copy; only a crash between the two commits leaves the row on both shards, which UserResharder
+    // repairs. Returns false when the row is gone from the source shard or no longer has the expected version.
+    boolean moveRow(long id, Long expectedVersion, int from, int to, Map<String, Object> changes) {
+        try (Connection source = shards.dataSource(from).getConnection();
+             Connection target = shards.dataSource(to).getConnection()) {
+            source.setAutoCommit(false);
+            target.setAutoCommit(false);
+            try {
+                Map<String, Object> row = lockRow(source, id, expectedVersion);
+                if (row == null) {
+                    source.rollback();
+                    return false;
+                }
+                row.putAll(changes);
+                insert(target, row);
+                delete(source, id);
+                target.commit();
+            } catch (SQLException | RuntimeException e) {
+                rollbackQuietly(target, e);
+                rollbackQuietly(source, e);
+                throw e;
+            }
+
+            try {
+                source.commit();
+            } catch (SQLException e) {
+                delete(target, id);
+                target.commit();
+                throw e;
+            }
+            return true;
+        } catch (SQLException e) {
+            String task = "Move user " + id + " from shard " + from + " to shard " + to;
+            DataAccessException translated = exceptionTranslator.translate(task, null, e);
+            throw translated != null ? translated : new UncategorizedSQLException(task, null, e);
+        }
+    }
+
+    // Delete a row from one shard, used by UserResharder to drop the stale half of an interrupted move
+    void deleteRow(int shard, long id) {
+        try (Connection connection = shards.dataSource(shard).getConnection()) {
+            delete(connection, id);
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("Delete user " + id + " from shard " + shard, null, e);
+        }
+    }
+
+    // Read a row and lock it against concurrent updates until the delete commits
+    private static Map<String, Object> lockRow(Connection connection, long id, Long expectedVersion) throws SQLException {
+        String sql = "select * from " + TABLE + " where id = ?" + (expectedVersion == null ? "" : " and version = ?") + " for update";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, id);
+            if (expectedVersion != null) {
+                statement.setLong(2, expectedVersion);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                Map<String, Object> row = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                    row.put(metaData.getColumnLabel(column), resultSet.getObject(column));
+                }
+                return row;
+            }
+        }
+    }
+
+    private static void insert(Connection connection, Map<String, Object> row) throws SQLException {
+        String columns = String.join(", ", row.keySet());
+        String placeholders = String.join(", ", row.keySet().stream().map(column -> "?").toList());
+        try (PreparedStatement statement = connection.prepareStatement("insert into " + TABLE + " (" + columns + ") values (" + placeholders + ")")) {
+            int index = 1;
+            for (Object value : row.values()) {
+                statement.setObject(index++, value);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private static void delete(Connection connection, long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("delete from " + TABLE + " where id = ?")) {
+            statement.setLong(1, id);
+            statement.executeUpdate();
+        }
+    }
+
+    private static void rollbackQuietly(Connection connection, Exception cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.userservice.user.sharding;
+
+import com.example.userservice.user.model.Users;
+import jakarta.annotation.PreDestroy;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+// Places every user on one of N databases by a stable hash of its normalized email.
+// Single-user operations run on the user's shard (see ShardKey); listing and export fan out over every shard.
+// Without sharding there is a single shard, the application DataSource, and nothing is ever fanned out.
+public class UserShards {
+
+    // Shard of the current thread, read by ShardRoutingDataSource whenever a connection is fetched
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final List<DataSource> dataSources;
+    private final ExecutorService fanOut;
+
+    public UserShards(List<DataSource> dataSources) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.dataSources = List.copyOf(dataSources);
+
+        // One task per shard and call, so the pool grows with concurrent fan-outs instead of queueing them
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fanOut = dataSources.size() == 1 ? null : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "user-shard-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // The shard selected for the current thread, or null outside of onShard
+    public static Integer currentShard() {
+        return CURRENT.get();
+    }
+
+    public int count() {
+        return dataSources.size();
+    }
+
+    // Direct access to a shard, bypassing the routing (and any Spring-managed transaction)
+    public DataSource dataSource(int shard) {
+        return dataSources.get(shard);
+    }
+
+    // Shard of an email: a jump consistent hash of the normalized email, so growing from N to N+1 shards
+    // only moves 1/(N+1) of the users (see UserResharder)
+    public int shardOf(String email) {
+        if (dataSources.size() == 1) {
+            return 0;
+        }
+        return jumpConsistentHash(fnv1a(Users.normalizeEmail(email)), dataSources.size());
+    }
+
+    // Run a call with every connection of the current thread taken from the given shard.
+    // Transactions must begin inside the call to be bound to the shard.
+    public <T, X extends Throwable> T onShard(int shard, ShardCall<T, X> call) throws X {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return call.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    // Run work on every shard in parallel, each on its own thread bound to the shard, and return the results in shard order
+    public <T> List<T> onEachShard(IntFunction<T> work) {
+        if (fanOut == null) {
+            return List.of(onShard(0, () -> work.apply(0)));
+        }
+
+        List<Future<T>> futures = new ArrayList<>(dataSources.size());
+        for (int shard = 0; shard < dataSources.size(); shard++) {
+            int current = shard;
+            futures.add(fanOut.submit(() -> onShard(current, () -> work.apply(current))));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying the shards", e);
+        }
+        return results;
+    }
+
+    // Run a task on a fan-out thread bound to the given shard
+    public Future<?> submitOnShard(int shard, Runnable task) {
+        if (fanOut == null) {
+            throw new IllegalStateException("A single shard is never fanned out");
+        }
+        return fanOut.submit(() -> onShard(shard, () -> {
+            task.run();
+            return null;
+        }));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (fanOut != null) {
+            fanOut.shutdownNow();
+        }
+    }
+
+    // Close the shard pools, when they were created for the shards rather than shared with the application
+    public void closeDataSources() throws Exception {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    // FNV-1a over the UTF-8 bytes: the same value in every JVM and language, unlike String.hashCode on other platforms
+    static long fnv1a(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Lamping and Veach, "A Fast, Minimal Memory, Consistent Hash Algorithm"
+    static int jumpConsistentHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    @FunctionalInterface
+    public interface ShardCall<T, X extends Throwable> {
+        T call() throws X;
+    }
+}
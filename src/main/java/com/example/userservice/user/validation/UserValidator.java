@@ -0,0 +1,174 @@
+package com.example.userservice.user.validation;
+
+import com.example.userservice.user.model.Users;
+
+// The single set of rules for user fields, shared by the controller and the service.
+// Every check is a plain character scan that returns a constant message (or null when valid), so validating allocates nothing.
+public final class UserValidator {
+
+    public static final int EMAIL_MAX_LENGTH = 100;
+    public static final int PASSWORD_MIN_LENGTH = 8;
+    public static final int PASSWORD_MAX_LENGTH = 20;
+    public static final int FIRST_NAME_MAX_LENGTH = 50;
+    public static final int LAST_NAME_MAX_LENGTH = 100;
+
+    public static final String EMAIL_REQUIRED = "Email is required";
+    public static final String EMAIL_TOO_LONG = "Email must be less than " + EMAIL_MAX_LENGTH + " characters long";
+    public static final String EMAIL_INVALID = "Email should be valid";
+    public static final String PASSWORD_REQUIRED = "Password is required";
+    public static final String PASSWORD_LENGTH = "Password must be between " + PASSWORD_MIN_LENGTH + " and " + PASSWORD_MAX_LENGTH + " characters";
+    public static final String FIRST_NAME_TOO_LONG = "First name must be less than " + FIRST_NAME_MAX_LENGTH + " characters long";
+    public static final String FIRST_NAME_LETTERS = "First name must contain only letters";
+    public static final String LAST_NAME_TOO_LONG = "Last name must be less than " + LAST_NAME_MAX_LENGTH + " characters long";
+    public static final String LAST_NAME_LETTERS = "Last name must contain only letters";
+
+    private static final int LOCAL_PART_MAX_LENGTH = 64;
+    private static final int DOMAIN_LABEL_MAX_LENGTH = 63;
+
+    private UserValidator() {
+    }
+
+    // Validate a user that is about to be created and return the first error, or null when it is valid
+    public static String validateNewUser(Users user) {
+        String error = validateEmail(user.getEmail());
+        if (error == null) {
+            error = validatePassword(user.getPassword());
+        }
+        if (error == null) {
+            error = validateFirstName(user.getFirstName());
+        }
+        if (error == null) {
+            error = validateLastName(user.getLastName());
+        }
+        return error;
+    }
+
+    // Email is mandatory and must be a well-formed address of at most 100 characters
+    public static String validateEmail(String email) {
+        if (email == null || email.isEmpty()) {
+            return EMAIL_REQUIRED;
+        }
+        if (email.length() > EMAIL_MAX_LENGTH) {
+            return EMAIL_TOO_LONG;
+        }
+        return isValidEmail(email) ? null : EMAIL_INVALID;
+    }
+
+    // An email looked up rather than written is only rejected when it cannot be a stored key. Rows saved under the
+    // looser format rule of earlier releases must stay readable, so the format check is left to creates and updates.
+    public static String validateLookupEmail(String email) {
+        return email.length() > EMAIL_MAX_LENGTH ? EMAIL_TOO_LONG : null;
+    }
+
+    // Password is mandatory and must be between 8 and 20 characters
+    public static String validatePassword(String password) {
+        if (password == null || password.isEmpty()) {
+            return PASSWORD_REQUIRED;
+        }
+        if (password.length() < PASSWORD_MIN_LENGTH || password.length() > PASSWORD_MAX_LENGTH) {
+            return PASSWORD_LENGTH;
+        }
+        return null;
+    }
+
+    // First name is optional, up to 50 letters and spaces
+    public static String validateFirstName(String firstName) {
+        if (firstName == null) {
+            return null;
+        }
+        if (firstName.length() > FIRST_NAME_MAX_LENGTH) {
+            return FIRST_NAME_TOO_LONG;
+        }
+        return isLettersAndSpaces(firstName) ? null : FIRST_NAME_LETTERS;
+    }
+
+    // Last name is optional, up to 100 letters and spaces
+    public static String validateLastName(String lastName) {
+        if (lastName == null) {
+            return null;
+        }
+        if (lastName.length() > LAST_NAME_MAX_LENGTH) {
+            return LAST_NAME_TOO_LONG;
+        }
+        return isLettersAndSpaces(lastName) ? null : LAST_NAME_LETTERS;
+    }
+
+    // Check the address shape in one pass: local@label.label...tld
+    // The local part allows letters, digits and . _ % + - without leading, trailing or doubled dots.
+    // Domain labels allow letters, digits and inner hyphens, and the top-level domain is at least two letters.
+    public static boolean isValidEmail(CharSequence email) {
+        int length = email.length();
+
+        int i = 0;
+        char previous = '.'; // Treat the start as a dot so a leading dot is rejected
+        for (; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                break;
+            }
+            if (c == '.' ? previous == '.' : !isLocalPartChar(c)) {
+                return false;
+            }
+            previous = c;
+        }
+        if (i == 0 || i == length || i > LOCAL_PART_MAX_LENGTH || previous == '.') {
+            return false;
+        }
+
+        int dots = 0;
+        int labelLength = 0;
+        boolean labelIsLetters = true;
+        previous = '.';
+        for (i++; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (labelLength == 0 || previous == '-') {
+                    return false;
+                }
+                dots++;
+                labelLength = 0;
+                labelIsLetters = true;
+            } else if (c == '-') {
+                if (labelLength == 0) {
+                    return false;
+                }
+                labelLength++;
+                labelIsLetters = false;
+            } else if (isLetter(c)) {
+                labelLength++;
+            } else if (isDigit(c)) {
+                labelLength++;
+                labelIsLetters = false;
+            } else {
+                return false;
+            }
+            if (labelLength > DOMAIN_LABEL_MAX_LENGTH) {
+                return false;
+            }
+            previous = c;
+        }
+        return dots > 0 && labelLength >= 2 && labelIsLetters;
+    }
+
+    private static boolean isLettersAndSpaces(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != ' ' && !isLetter(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLocalPartChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.userservice.reactive;
+
+import com.example.userservice.user.controller.UserController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The reactive application end to end, over HTTP on Netty, checking the status codes of UserController.
+// Named explicitly: the lookup of the configuration class would skip it, as it only applies to a reactive application.
+@SpringBootTest(classes = ReactiveUserServiceApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-test;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles(ReactiveUserServiceApplication.PROFILE)
+class ReactiveUserControllerTest {
+
+    private static final String USERS_URL = "/api/v1/userservice/users";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void createUser_returnsCreatedThenBadRequestForDuplicateEmail() {
+        // GIVEN
+        Map<String, String> user = Map.of("firstName", "Mike", "lastName", "Myers", "email", "create@reactive.test", "password", "somePassword1");
+
+        // WHEN
+        // THEN
+        webTestClient.post().uri(USERS_URL).bodyValue(user).exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class).isEqualTo("The user was created successfully");
+        webTestClient.post().uri(USERS_URL).bodyValue(Map.of("firstName", "Mike", "lastName", "Myers", "email", "CREATE@reactive.test", "password", "somePassword1")).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Email already exists");
+        webTestClient.post().uri(USERS_URL).bodyValue(Map.of("email", "invalid", "password", "somePassword1")).exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getUserByEmail_returnsUserWithETagAndNotModified() {
+        // GIVEN
+        String eTag = webTestClient.get().uri(USERS_URL + "/hedlund.thomas@email.com").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("Thomas")
+                .jsonPath("$.password").doesNotExist()
+                .returnResult().getResponseHeaders().getETag();
+
+        // WHEN
+        // THEN
+        assertThat(eTag).isNotNull();
+        webTestClient.get().uri(USERS_URL + "/hedlund.thomas@email.com").header(HttpHeaders.IF_NONE_MATCH, eTag).exchange()
+                .expectStatus().isNotModified();
+        webTestClient.get().uri(USERS_URL + "/unknown@email.com").exchange()
+                .expectStatus().isNotFound();
+        webTestClient.get().uri(USERS_URL + "/not-an-email").exchange() // Looked up, not format checked
+                .expectStatus().isNotFound();
+        webTestClient.get().uri(USERS_URL + "/" + "e".repeat(95) + "@x.com").exchange() // Too long to be stored
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void updatePatchAndDelete_followTheServletStatusCodes() {
+        // GIVEN
+        webTestClient.post().uri(USERS_URL).bodyValue(Map.of("firstName", "Mike", "lastName", "Myers", "email", "update@reactive.test", "password", "somePassword1")).exchange()
+                .expectStatus().isCreated();
+        String eTag = webTestClient.get().uri(USERS_URL + "/update@reactive.test").exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        // WHEN
+        // THEN
+        webTestClient.put().uri(USERS_URL + "/update@reactive.test").header(HttpHeaders.IF_MATCH, eTag).bodyValue(Map.of("firstName", "Michael")).exchange()
+                .expectStatus().isNoContent();
+        webTestClient.put().uri(USERS_URL + "/update@reactive.test").header(HttpHeaders.IF_MATCH, eTag).bodyValue(Map.of("firstName", "Mikey")).exchange()
+                .expectStatus().isEqualTo(412); // The ETag was of the previous version
+        webTestClient.put().uri(USERS_URL + "/update@reactive.test").bodyValue(Map.of()).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("No fields updated");
+        webTestClient.put().uri(USERS_URL + "/missing@reactive.test").bodyValue(Map.of("firstName", "Mike")).exchange()
+                .expectStatus().isNotFound();
+        webTestClient.patch().uri(USERS_URL + "/update@reactive.test").contentType(MediaType.valueOf(UserController.MERGE_PATCH_JSON_VALUE))
+                .bodyValue("{\"lastName\":null,\"email\":\"patched@reactive.test\"}").exchange()
+                .expectStatus().isNoContent();
+        webTestClient.get().uri(USERS_URL + "/patched@reactive.test").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("Michael")
+                .jsonPath("$.lastName").doesNotExist();
+        webTestClient.get().uri(USERS_URL + "/update@reactive.test").exchange()
+                .expectStatus().isNotFound(); // Evicted from the cache after the email changed
+        webTestClient.delete().uri(USERS_URL + "/patched@reactive.test").exchange()
+                .expectStatus().isNoContent();
+        webTestClient.delete().uri(USERS_URL + "/patched@reactive.test").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void updateAndPatch_allowChangingOnlyTheCaseOfTheEmail() {
+        // GIVEN
+        webTestClient.post().uri(USERS_URL).bodyValue(Map.of("firstName", "Mike", "lastName", "Myers", "email", "Case@reactive.test", "password", "somePassword1")).exchange()
+                .expectStatus().isCreated();
+
+        // WHEN
+        // THEN
+        webTestClient.put().uri(USERS_URL + "/Case@reactive.test").bodyValue(Map.of("email", "case@reactive.test")).exchange()
+                .expectStatus().isNoContent(); // The normalized email is the user's own, not a taken one
+        webTestClient.patch().uri(USERS_URL + "/case@reactive.test").contentType(MediaType.valueOf(UserController.MERGE_PATCH_JSON_VALUE))
+                .bodyValue("{\"email\":\"CASE@reactive.test\"}").exchange()
+                .expectStatus().isNoContent();
+        webTestClient.get().uri(USERS_URL + "/case@reactive.test").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("CASE@reactive.test");
+        webTestClient.delete().uri(USERS_URL + "/case@reactive.test").exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void batchCreateListAndBulkDelete() {
+        // GIVEN
+        List<Map<String, String>> users = List.of(
+                Map.of("email", "batch1@reactive.test", "password", "somePassword1"),
+                Map.of("email", "batch2@reactive.test", "password", "somePassword1"),
+                Map.of("email", "BATCH1@reactive.test", "password", "somePassword1"),
+                Map.of("email", "invalid", "password", "somePassword1"));
+
+        // WHEN
+        // THEN
+        webTestClient.post().uri(USERS_URL + "/batch").bodyValue(users).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.created").isEqualTo(2)
+                .jsonPath("$.failed").isEqualTo(2)
+                .jsonPath("$.errors[0].index").isEqualTo(2);
+        webTestClient.get().uri(USERS_URL + "?size=1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.users.length()").isEqualTo(1)
+                .jsonPath("$.nextCursor").isNotEmpty();
+        webTestClient.get().uri(USERS_URL + "?size=0").exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.method(HttpMethod.DELETE).uri(USERS_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of("batch1@reactive.test", "Batch2@reactive.test", "nobody@reactive.test")).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.received").isEqualTo(3)
+                .jsonPath("$.deleted").isEqualTo(2);
+    }
+
+    @Test
+    void exportUsers_streamsOneJsonDocumentPerLine() {
+        // GIVEN
+        // WHEN
+        String body = webTestClient.get().uri(USERS_URL + "/export").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        // THEN
+        assertThat(body).contains("\"email\":\"hedlund.thomas@email.com\"").doesNotContain("password");
+        assertThat(body.lines().count()).isGreaterThanOrEqualTo(2);
+    }
+}
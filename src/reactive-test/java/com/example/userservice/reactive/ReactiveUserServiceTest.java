@@ -0,0 +1,91 @@
+package com.example.userservice.reactive;
+
+import com.example.userservice.reactive.repository.ReactiveUserRepository;
+import com.example.userservice.reactive.service.ReactiveUserBatchService;
+import com.example.userservice.reactive.service.ReactiveUserService;
+import com.example.userservice.user.dto.BatchCreateResponse;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.security.PasswordHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceTest {
+
+    private static final String DUPLICATE_EMAIL =
+            "Unique index or primary key violation: \"PUBLIC.UK_USER_EMAIL_KEY_INDEX_3 ON PUBLIC.\"\"user\"\"(EMAIL_KEY)\"";
+    private static final String NULL_COLUMN = "NULL not allowed for column \"PASSWORD\"";
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    private ReactiveUserService userService;
+
+    private ReactiveUserBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new ReactiveUserService(userRepository, passwordHasher, cacheManager);
+        batchService = new ReactiveUserBatchService(userRepository, userService, passwordHasher, 100, 10);
+        given(passwordHasher.hashAsync(anyString())).willReturn(CompletableFuture.completedFuture("hashedPassword"));
+    }
+
+    @Test
+    void createUser_reportsViolationOfTheEmailIndexAsTakenEmail() {
+        // GIVEN
+        given(userRepository.insert(any(Users.class))).willReturn(Mono.error(new DataIntegrityViolationException(DUPLICATE_EMAIL)));
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> userService.createUser(new Users("Mike", "Myers", "taken@email.com", "somePassword1")).block())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Email already exists");
+    }
+
+    @Test
+    void createUser_letsOtherIntegrityViolationsThrough() {
+        // GIVEN
+        given(userRepository.insert(any(Users.class))).willReturn(Mono.error(new DataIntegrityViolationException(NULL_COLUMN)));
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> userService.createUser(new Users("Mike", "Myers", "mike@email.com", "somePassword1")).block())
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessage(NULL_COLUMN);
+    }
+
+    @Test
+    void createUsers_reportsOnlyTakenEmailsPerUser() {
+        // GIVEN
+        Users taken = new Users("Mike", "Myers", "taken@email.com", "somePassword1");
+        Users broken = new Users("Julie", "Christmas", "julie@email.com", "somePassword1");
+        given(userRepository.insert(taken)).willReturn(Mono.error(new DataIntegrityViolationException(DUPLICATE_EMAIL)));
+        given(userRepository.insert(broken)).willReturn(Mono.error(new DataIntegrityViolationException(NULL_COLUMN)));
+
+        // WHEN & THEN
+        BatchCreateResponse response = batchService.createUsers(List.of(taken)).block();
+        assertThat(response.errors()).singleElement()
+                .satisfies(error -> assertThat(error.message()).isEqualTo("Email already exists"));
+        assertThatThrownBy(() -> batchService.createUsers(List.of(broken)).block())
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.userservice.reactive;
+
+import com.example.userservice.user.exceptions.GlobalExceptionHandler;
+import com.example.userservice.user.security.PasswordHasher;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+// Reactive variant of the user API: the same endpoints as UserController on WebFlux, stored over R2DBC.
+// It lives under the servlet application's package, so it and every component of this package only apply to a reactive
+// web application: the servlet application scans them but skips them. JDBC and JPA are left out here.
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Import({PasswordHasher.class, GlobalExceptionHandler.class})
+public class ReactiveUserServiceApplication {
+
+    // Spring profile holding the R2DBC and schema settings
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveUserServiceApplication.class)
+                .profiles(PROFILE)
+                .run(args);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.userservice.reactive.config;
+
+import com.example.userservice.reactive.repository.ReactiveUserRepository;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.security.PasswordHasher;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Web server, the usersByEmail cache (same spring.cache.* settings as the servlet application) and the same two seeded users
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveUserConfig {
+
+    // Tomcat is on the classpath for the servlet application and would be picked first; this one runs on the
+    // Reactor Netty event loop, a few threads for every connection
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // @Cacheable on a method returning Mono needs an async cache, which stores the value once the Mono completes
+    @Bean
+    CacheManagerCustomizer<CaffeineCacheManager> asyncCacheMode() {
+        return cacheManager -> cacheManager.setAsyncCacheMode(true);
+    }
+
+    @Bean
+    CommandLineRunner commandLineRunner(ReactiveUserRepository repository, PasswordHasher passwordHasher) {
+        return args -> Flux.just(
+                        new Users("Thomas", "Hedlund", "hedlund.thomas@email.com", "somePassword1"),
+                        new Users("Julie", "Christmas", "juliexmas@email.com", "somePassword2"))
+                .concatMap(user -> Mono.fromFuture(() -> passwordHasher.hashAsync(user.getPassword()))
+                        .flatMap(hash -> {
+                            user.setPassword(hash);
+                            return repository.insert(user);
+                        }))
+                .blockLast(); // Startup waits for the seed, as it does for the servlet application
+    }
+}
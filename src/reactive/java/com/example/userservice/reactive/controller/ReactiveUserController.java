@@ -0,0 +1,142 @@
+package com.example.userservice.reactive.controller;
+
+import com.example.userservice.reactive.service.ReactiveUserBatchService;
+import com.example.userservice.reactive.service.ReactiveUserService;
+import com.example.userservice.user.controller.UserController;
+import com.example.userservice.user.dto.UserPatch;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.service.UserETag;
+import com.example.userservice.user.validation.UserValidator;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// The endpoints of UserController with the same paths, status codes and bodies, returning Mono and Flux.
+// Errors the servlet controller catches are mapped the same way here; the rest (412, 503) go through GlobalExceptionHandler.
+// The bulk import (a spooled upload processed by a job pool) is only offered by the servlet application.
+@RestController
+@RequestMapping(path = "api/v1/userservice")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+    private final ReactiveUserBatchService userBatchService;
+
+    public ReactiveUserController(ReactiveUserService userService, ReactiveUserBatchService userBatchService) {
+        this.userService = userService;
+        this.userBatchService = userBatchService;
+    }
+
+
+    // Create a new user
+    @PostMapping("/users")
+    public Mono<ResponseEntity<String>> createUser(
+            @RequestBody Users user) {
+        return userService.createUser(user)
+                .map(message -> ResponseEntity.status(HttpStatus.CREATED).body(message)) // 201 Successfully created
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage()))); // 400 Bad request
+    }
+
+
+    // Create many users at once
+    @PostMapping("/users/batch")
+    public Mono<ResponseEntity<Object>> createUsers(
+            @RequestBody List<Users> users) {
+        return userBatchService.createUsers(users)
+                .<ResponseEntity<Object>>map(ResponseEntity::ok) // 200 Batch processed
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage()))); // 400 Bad request
+    }
+
+
+    // List users one page at a time
+    @GetMapping("/users")
+    public Mono<ResponseEntity<Object>> listUsers(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "50") int size) {
+        return userService.listUsers(cursor, size)
+                .<ResponseEntity<Object>>map(ResponseEntity::ok) // 200 Page found
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage()))); // 400 Bad request
+    }
+
+
+    // Export all users as newline-delimited JSON, one user written per row read
+    @GetMapping(path = "/users/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Users> exportUsers() {
+        return userService.exportUsers();
+    }
+
+
+    // Get a user by email
+    @GetMapping("/users/{email}")
+    public Mono<ResponseEntity<Object>> getUserByEmail(
+            @PathVariable("email") String email) {
+        // Reject emails too long to be stored before they reach the cache or the database; any other unknown email is a 404
+        String error = UserValidator.validateLookupEmail(email);
+        if (error != null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error)); // 400 Bad Request
+        }
+        // WebFlux answers 304 for a matching If-None-Match before the body is serialized.
+        // An unknown email is answered 404 by GlobalExceptionHandler.
+        return userService.getUserByEmail(email, "User with email " + email + " does not exist")
+                .map(user -> ResponseEntity.ok().eTag(UserETag.of(user)).body((Object) user)); // 200 User found
+    }
+
+
+    // Update user email or password
+    @PutMapping("/users/{email}")
+    public Mono<ResponseEntity<String>> updateUser(
+            @PathVariable String email,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Users updatedUser) {
+        return noContentOrError(userService.updateUser(email, updatedUser, ifMatch));
+    }
+
+
+    // Partially update a user with a JSON Merge Patch: absent fields are left alone and null removes an optional field
+    @PatchMapping(path = "/users/{email}", consumes = {UserController.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseEntity<String>> patchUser(
+            @PathVariable String email,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        return noContentOrError(Mono.defer(() -> userService.patchUser(email, UserPatch.from(patch), ifMatch)));
+    }
+
+
+    // Delete a user by email
+    @DeleteMapping("/users/{email}")
+    public Mono<ResponseEntity<String>> deleteUser(
+            @PathVariable String email,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return userService.deleteUser(email, ifMatch)
+                .then(Mono.just(ResponseEntity.noContent().<String>build())) // 204 Successfully deleted
+                .onErrorResume(IllegalArgumentException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage()))); // 404 Not Found, nothing was deleted
+    }
+
+
+    // Delete many users at once by email
+    @DeleteMapping("/users")
+    public Mono<ResponseEntity<Object>> deleteUsers(
+            @RequestBody List<String> emails) {
+        return userBatchService.deleteUsers(emails)
+                .<ResponseEntity<Object>>map(ResponseEntity::ok) // 200 Batch processed
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage()))); // 400 Bad request
+    }
+
+
+    // Outcome of an update: 204 when it was applied and 400 for validation errors (an unknown user is a 404 from GlobalExceptionHandler)
+    private static Mono<ResponseEntity<String>> noContentOrError(Mono<Void> update) {
+        return update
+                .then(Mono.just(ResponseEntity.noContent().<String>build())) // 204 Update was successful
+                .onErrorResume(IllegalArgumentException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage()))); // 400 Bad Request for all validation errors
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.userservice.reactive.repository;
+
+import com.example.userservice.user.dto.UserView;
+import com.example.userservice.user.model.Users;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+// The queries of UserRepository written out over R2DBC. Lookups and deletes go through the unique email_key index,
+// and every update is guarded by the version column, so no statement needs a surrounding transaction.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRepository {
+
+    private static final String COLUMNS = "id, email, email_key, password, first_name, last_name, version";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Users> findByEmail(String email) {
+        return databaseClient.sql("select " + COLUMNS + " from \"user\" where email_key = :emailKey")
+                .bind("emailKey", Users.normalizeEmail(email))
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    // Only the public columns, for reads: the password is never selected
+    public Mono<UserView> findViewByEmail(String email) {
+        return databaseClient.sql("select id, email, first_name, last_name, version from \"user\" where email_key = :emailKey")
+                .bind("emailKey", Users.normalizeEmail(email))
+                .map(row -> new UserView(
+                        row.get("id", Long.class),
+                        row.get("email", String.class),
+                        row.get("first_name", String.class),
+                        row.get("last_name", String.class),
+                        row.get("version", Long.class)))
+                .one();
+    }
+
+    public Mono<Boolean> existsByEmail(String email) {
+        return databaseClient.sql("select 1 from \"user\" where email_key = :emailKey")
+                .bind("emailKey", Users.normalizeEmail(email))
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    // One page of users ordered by id, starting after the given id
+    public Flux<Users> findByIdGreaterThanOrderByIdAsc(long afterId, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from \"user\" where id > :afterId order by id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    // Every user ordered by id, emitted as rows arrive so the export never holds the table in memory
+    public Flux<Users> streamAllOrderById() {
+        return databaseClient.sql("select " + COLUMNS + " from \"user\" order by id")
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    // Insert a new user in one statement and emit it with its id and version. A taken email fails with DataIntegrityViolationException.
+    public Mono<Users> insert(Users user) {
+        return bindNullable(databaseClient.sql("insert into \"user\" (" + COLUMNS + ") "
+                        + "values (next value for " + Users.ID_SEQUENCE + ", :email, :emailKey, :password, :firstName, :lastName, 0)")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("email", user.getEmail())
+                .bind("emailKey", Users.normalizeEmail(user.getEmail()))
+                .bind("password", user.getPassword()), user)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    user.setId(id);
+                    user.setVersion(0L);
+                    return user;
+                });
+    }
+
+    // Write every field of the user if it is still at the given version, bumping the version; emits the rows updated (0 or 1)
+    public Mono<Long> update(Users user, long expectedVersion) {
+        return bindNullable(databaseClient.sql("update \"user\" set email = :email, email_key = :emailKey, password = :password, "
+                        + "first_name = :firstName, last_name = :lastName, version = version + 1 "
+                        + "where id = :id and version = :version")
+                .bind("email", user.getEmail())
+                .bind("emailKey", Users.normalizeEmail(user.getEmail()))
+                .bind("password", user.getPassword())
+                .bind("id", user.getId())
+                .bind("version", expectedVersion), user)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByEmail(String email) {
+        return databaseClient.sql("delete from \"user\" where email_key = :emailKey")
+                .bind("emailKey", Users.normalizeEmail(email))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByEmailAndVersion(String email, long version) {
+        return databaseClient.sql("delete from \"user\" where email_key = :emailKey and version = :version")
+                .bind("emailKey", Users.normalizeEmail(email))
+                .bind("version", version)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // Delete the users with the given normalized emails in one statement
+    public Mono<Long> deleteByEmailKeyIn(Collection<String> emailKeys) {
+        return databaseClient.sql("delete from \"user\" where email_key in (:emailKeys)")
+                .bind("emailKeys", emailKeys)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // First and last name are optional, and R2DBC needs the type of a null parameter
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, Users user) {
+        spec = user.getFirstName() == null ? spec.bindNull("firstName", String.class) : spec.bind("firstName", user.getFirstName());
+        return user.getLastName() == null ? spec.bindNull("lastName", String.class) : spec.bind("lastName", user.getLastName());
+    }
+
+    private static Users toUser(Readable row) {
+        Users user = new Users(
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("email", String.class),
+                row.get("password", String.class));
+        user.setId(row.get("id", Long.class));
+        user.setVersion(row.get("version", Long.class));
+        return user;
+    }
+}
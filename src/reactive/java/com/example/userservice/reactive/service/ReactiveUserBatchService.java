@@ -0,0 +1,119 @@
+package com.example.userservice.reactive.service;
+
+import com.example.userservice.reactive.repository.ReactiveUserRepository;
+import com.example.userservice.user.dto.BatchCreateResponse;
+import com.example.userservice.user.dto.BatchDeleteResponse;
+import com.example.userservice.user.dto.BatchItemError;
+import com.example.userservice.user.exceptions.DuplicateEmails;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.security.PasswordHasher;
+import com.example.userservice.user.validation.UserValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+
+// UserBatchService ported to Mono and Flux, with the same limits and per-user errors.
+// Users are inserted one statement each, a few at a time, rather than in JDBC batches: R2DBC H2 has no batched inserts,
+// and the hashing pool bounds the throughput of a bulk create anyway.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserBatchService {
+
+    // Users hashed and inserted at once: enough to keep every hashing thread busy without overflowing its queue
+    private static final int CREATE_CONCURRENCY = Runtime.getRuntime().availableProcessors();
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveUserService userService;
+    private final PasswordHasher passwordHasher;
+    private final int maxSize;
+    private final int chunkSize;
+
+    public ReactiveUserBatchService(ReactiveUserRepository userRepository,
+                                    ReactiveUserService userService,
+                                    PasswordHasher passwordHasher,
+                                    @Value("${userservice.batch.max-size:50000}") int maxSize,
+                                    @Value("${userservice.batch.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.passwordHasher = passwordHasher;
+        this.maxSize = maxSize;
+        this.chunkSize = chunkSize;
+    }
+
+    // Validate and create a list of users, reporting the ones that could not be created by their position
+    public Mono<BatchCreateResponse> createUsers(List<Users> users) {
+        if (users == null || users.isEmpty() || users.size() > maxSize) {
+            return Mono.error(new IllegalArgumentException("A batch must contain between 1 and " + maxSize + " users"));
+        }
+
+        // Validate every user and reject emails repeated within the request
+        List<BatchItemError> errors = new ArrayList<>();
+        List<Integer> candidates = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+        for (int i = 0; i < users.size(); i++) {
+            Users user = users.get(i);
+            String error = user == null ? "User is required" : UserValidator.validateNewUser(user);
+            if (error == null && !seenEmails.add(user.getEmailKey())) {
+                error = "Email already exists";
+            }
+            if (error != null) {
+                errors.add(new BatchItemError(i, user == null ? null : user.getEmail(), error));
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        // Registered emails are rejected by the unique index as each user is inserted
+        return Flux.fromIterable(candidates)
+                .flatMap(i -> create(i, users.get(i)), CREATE_CONCURRENCY)
+                .collectList()
+                .map(insertErrors -> {
+                    errors.addAll(insertErrors);
+                    errors.sort(Comparator.comparingInt(BatchItemError::index));
+                    return new BatchCreateResponse(users.size(), candidates.size() - insertErrors.size(), errors.size(), errors);
+                });
+    }
+
+    // Delete the users with the given emails, with one DELETE statement per chunk
+    public Mono<BatchDeleteResponse> deleteUsers(List<String> emails) {
+        if (emails == null || emails.isEmpty() || emails.size() > maxSize) {
+            return Mono.error(new IllegalArgumentException("A batch must contain between 1 and " + maxSize + " emails"));
+        }
+
+        List<String> distinctEmails = emails.stream().filter(Objects::nonNull).map(Users::normalizeEmail).distinct().toList();
+        return Flux.fromIterable(distinctEmails)
+                .buffer(chunkSize)
+                .concatMap(chunk -> userRepository.deleteByEmailKeyIn(chunk)
+                        .doOnSuccess(deleted -> chunk.forEach(userService::evict)))
+                .reduce(0L, Long::sum)
+                .map(deleted -> new BatchDeleteResponse(distinctEmails.size(), deleted.intValue()));
+    }
+
+    // Hash and insert one user; emits an error entry when its email is already taken, nothing when it was created.
+    // A hashing pool that is full for the moment (other requests hash too) is retried rather than failing the user.
+    private Mono<BatchItemError> create(int index, Users user) {
+        return Mono.fromFuture(() -> passwordHasher.hashAsync(user.getPassword()))
+                .retryWhen(Retry.backoff(5, Duration.ofMillis(20))
+                        .filter(RejectedExecutionException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .flatMap(hash -> {
+                    user.setPassword(hash);
+                    return userRepository.insert(user);
+                })
+                .then(Mono.<BatchItemError>empty())
+                .onErrorResume(DuplicateEmails::isDuplicateEmail,
+                        e -> Mono.just(new BatchItemError(index, user.getEmail(), "Email already exists")));
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.userservice.reactive.service;
+
+import com.example.userservice.reactive.repository.ReactiveUserRepository;
+import com.example.userservice.user.config.CacheConfig;
+import com.example.userservice.user.dto.UserPage;
+import com.example.userservice.user.dto.UserPatch;
+import com.example.userservice.user.dto.UserView;
+import com.example.userservice.user.exceptions.DuplicateEmails;
+import com.example.userservice.user.exceptions.UserNotFoundException;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.security.PasswordHasher;
+import com.example.userservice.user.service.UserETag;
+import com.example.userservice.user.service.UserService;
+import com.example.userservice.user.validation.UserValidator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+// UserService ported to Mono and Flux: the same validation, messages and exceptions, without blocking a thread.
+// Database calls are R2DBC and password hashing completes on the hashing pool, so the event loop only ever waits on I/O.
+// Cache entries are evicted once a write has completed, as the servlet service does after its commit.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final CacheManager cacheManager;
+
+    public ReactiveUserService(ReactiveUserRepository userRepository,
+                               PasswordHasher passwordHasher,
+                               CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.cacheManager = cacheManager;
+    }
+
+    // Create a new user
+    public Mono<String> createUser(Users user) {
+        return Mono.defer(() -> {
+            String error = UserValidator.validateNewUser(user);
+            if (error != null) {
+                return Mono.error(new IllegalArgumentException(error));
+            }
+
+            // Store only the hash of the password; the unique email index rejects duplicates, even under concurrent creates.
+            // Other integrity violations are bugs, not a taken email, and are left to fail the request.
+            return hash(user.getPassword())
+                    .flatMap(hash -> {
+                        user.setPassword(hash);
+                        return userRepository.insert(user);
+                    })
+                    .onErrorMap(DuplicateEmails::isDuplicateEmail, e -> new IllegalArgumentException("Email already exists"))
+                    .thenReturn("The user was created successfully");
+        });
+    }
+
+    // Retrieves the public fields of a user by email, served from the cache when present (the cache holds the completed
+    // value, not the Mono)
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, key = CacheConfig.EMAIL_KEY)
+    public Mono<UserView> getUserByEmail(String email, String message) {
+        String defaultMessage = message == null || message.isEmpty() ? "User with email " + email + " does not exist" : message;
+        return userRepository.findViewByEmail(email)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(defaultMessage)));
+    }
+
+    // List users ordered by id, starting after the position encoded in the cursor
+    public Mono<UserPage> listUsers(String cursor, int size) {
+        return Mono.defer(() -> {
+            if (size < 1 || size > UserService.MAX_PAGE_SIZE) {
+                return Mono.error(new IllegalArgumentException("Page size must be between 1 and " + UserService.MAX_PAGE_SIZE));
+            }
+            long afterId = cursor == null || cursor.isEmpty() ? 0L : UserService.decodeCursor(cursor);
+
+            // One row more than the page tells whether another page follows
+            return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, size + 1)
+                    .collectList()
+                    .map(users -> {
+                        boolean hasNext = users.size() > size;
+                        List<Users> page = hasNext ? users.subList(0, size) : users;
+                        String nextCursor = hasNext ? UserService.encodeCursor(page.get(page.size() - 1).getId()) : null;
+                        return new UserPage(page, nextCursor);
+                    });
+        });
+    }
+
+    // Every user in id order, streamed as rows are read
+    public Flux<Users> exportUsers() {
+        return userRepository.streamAllOrderById();
+    }
+
+    // Check a password for the user with the given email, for future login checks
+    public Mono<Boolean> verifyPassword(String email, String rawPassword) {
+        return userRepository.findByEmail(email)
+                .map(user -> Optional.of(user.getPassword()))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(hash -> Mono.fromFuture(() -> passwordHasher.verifyAsync(rawPassword, hash.orElse(null))));
+    }
+
+    // Update an existing user. With an If-Match value the update only applies to that version of the user.
+    public Mono<Void> updateUser(String email, Users updatedUser, String ifMatch) {
+        return findExisting(email).flatMap(existingUser -> {
+            checkIfMatch(existingUser, ifMatch);
+            long version = existingUser.getVersion();
+            boolean isUpdated = false;
+
+            // Validate and update email
+            String newEmail = updatedUser.getEmail();
+            Mono<Boolean> emailTaken = Mono.just(false);
+            if (newEmail != null && !newEmail.isEmpty()) {
+                rejectIfInvalid(UserValidator.validateEmail(newEmail));
+                // Compared by normalized key: a change of case only is still the user's own email
+                if (!Users.normalizeEmail(newEmail).equals(existingUser.getEmailKey())) {
+                    emailTaken = userRepository.existsByEmail(newEmail);
+                }
+                existingUser.setEmail(newEmail);
+                isUpdated = true;
+            }
+
+            // Validate the password, hashed below once the email is known to be free
+            String newPassword = updatedUser.getPassword();
+            boolean passwordChanged = newPassword != null && !newPassword.isEmpty();
+            if (passwordChanged) {
+                rejectIfInvalid(UserValidator.validatePassword(newPassword));
+                isUpdated = true;
+            }
+
+            // Validate and update first name
+            if (updatedUser.getFirstName() != null && !updatedUser.getFirstName().isEmpty() &&
+                    !updatedUser.getFirstName().equals(existingUser.getFirstName())) {
+                rejectIfInvalid(UserValidator.validateFirstName(updatedUser.getFirstName()));
+                existingUser.setFirstName(updatedUser.getFirstName());
+                isUpdated = true;
+            }
+
+            // Validate and update last name
+            if (updatedUser.getLastName() != null && !updatedUser.getLastName().isEmpty() &&
+                    !updatedUser.getLastName().equals(existingUser.getLastName())) {
+                rejectIfInvalid(UserValidator.validateLastName(updatedUser.getLastName()));
+                existingUser.setLastName(updatedUser.getLastName());
+                isUpdated = true;
+            }
+
+            // Check if any fields were updated
+            if (!isUpdated) {
+                return Mono.error(new IllegalArgumentException("No fields updated"));
+            }
+
+            return rejectIfTaken(emailTaken)
+                    .then(passwordChanged ? hash(newPassword) : Mono.just(existingUser.getPassword()))
+                    .flatMap(hash -> {
+                        existingUser.setPassword(hash);
+                        return save(existingUser, version, email);
+                    });
+        });
+    }
+
+    // Apply a JSON Merge Patch to an existing user, validating only the supplied fields
+    public Mono<Void> patchUser(String email, UserPatch patch, String ifMatch) {
+        return Mono.defer(() -> {
+            if (patch.isEmpty()) {
+                return Mono.error(new IllegalArgumentException("No fields updated"));
+            }
+
+            // Validate every supplied field before touching the database
+            if (patch.has(UserPatch.EMAIL)) {
+                rejectIfInvalid(UserValidator.validateEmail(patch.get(UserPatch.EMAIL)));
+            }
+            if (patch.has(UserPatch.PASSWORD)) {
+                rejectIfInvalid(UserValidator.validatePassword(patch.get(UserPatch.PASSWORD)));
+            }
+            if (patch.has(UserPatch.FIRST_NAME)) {
+                rejectIfInvalid(UserValidator.validateFirstName(patch.get(UserPatch.FIRST_NAME)));
+            }
+            if (patch.has(UserPatch.LAST_NAME)) {
+                rejectIfInvalid(UserValidator.validateLastName(patch.get(UserPatch.LAST_NAME)));
+            }
+
+            return findExisting(email).flatMap(user -> {
+                checkIfMatch(user, ifMatch);
+                long version = user.getVersion();
+
+                String newEmail = patch.get(UserPatch.EMAIL);
+                Mono<Boolean> emailTaken = Mono.just(false);
+                if (newEmail != null && !newEmail.equals(user.getEmail())) {
+                    if (!Users.normalizeEmail(newEmail).equals(user.getEmailKey())) {
+                        emailTaken = userRepository.existsByEmail(newEmail);
+                    }
+                    user.setEmail(newEmail);
+                }
+                if (patch.has(UserPatch.FIRST_NAME)) {
+                    user.setFirstName(patch.get(UserPatch.FIRST_NAME));
+                }
+                if (patch.has(UserPatch.LAST_NAME)) {
+                    user.setLastName(patch.get(UserPatch.LAST_NAME));
+                }
+
+                return rejectIfTaken(emailTaken)
+                        .then(patch.has(UserPatch.PASSWORD) ? hash(patch.get(UserPatch.PASSWORD)) : Mono.just(user.getPassword()))
+                        .flatMap(hash -> {
+                            user.setPassword(hash);
+                            return save(user, version, email);
+                        });
+            });
+        });
+    }
+
+    // Delete a user by email with a single DELETE statement.
+    // With an If-Match value only that version of the user is deleted.
+    public Mono<Void> deleteUser(String email, String ifMatch) {
+        Mono<Void> delete;
+        if (ifMatch == null || ifMatch.trim().equals(UserETag.ANY)) {
+            delete = userRepository.deleteByEmail(email)
+                    .flatMap(deleted -> deleted == 0
+                            ? Mono.error(UserNotFoundException.forEmail(email))
+                            : Mono.empty());
+        } else {
+            delete = findExisting(email)
+                    .flatMap(user -> {
+                        checkIfMatch(user, ifMatch);
+                        return userRepository.deleteByEmailAndVersion(email, user.getVersion());
+                    })
+                    .flatMap(deleted -> deleted == 0
+                            ? Mono.error(new OptimisticLockingFailureException("User with email " + email + " has been modified"))
+                            : Mono.empty());
+        }
+        return delete.doOnSuccess(done -> evict(email)).then();
+    }
+
+    // Evict a user from the lookup cache, after the write that changed it has completed
+    void evict(String email) {
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+        if (cache != null && email != null) {
+            cache.evict(Users.normalizeEmail(email));
+        }
+    }
+
+    // Read the current user straight from the database, bypassing the cache, before changing it
+    private Mono<Users> findExisting(String email) {
+        return userRepository.findByEmail(email)
+                .switchIfEmpty(Mono.error(() -> UserNotFoundException.forEmail(email)));
+    }
+
+    // Write the user back if nobody changed it since it was read, then evict both its old and its new email
+    private Mono<Void> save(Users user, long version, String oldEmail) {
+        return userRepository.update(user, version)
+                .onErrorMap(DuplicateEmails::isDuplicateEmail, e -> new IllegalArgumentException("Email already exists"))
+                .flatMap(updated -> updated == 0
+                        ? Mono.<Void>error(new OptimisticLockingFailureException("User with email " + oldEmail + " has been modified"))
+                        : Mono.<Void>empty())
+                .doOnSuccess(done -> {
+                    evict(oldEmail);
+                    evict(user.getEmail());
+                });
+    }
+
+    private Mono<String> hash(String rawPassword) {
+        return Mono.fromFuture(() -> passwordHasher.hashAsync(rawPassword));
+    }
+
+    private static Mono<Void> rejectIfTaken(Mono<Boolean> emailTaken) {
+        return emailTaken.flatMap(taken -> taken
+                ? Mono.<Void>error(new IllegalArgumentException("Email already exists"))
+                : Mono.<Void>empty());
+    }
+
+    // Reject a change made against another version of the user than the current one.
+    // Between this check and the write the version column still guards the UPDATE, so a concurrent change fails too.
+    private static void checkIfMatch(Users user, String ifMatch) {
+        if (ifMatch != null && !UserETag.matches(ifMatch, user)) {
+            throw new OptimisticLockingFailureException("User with email " + user.getEmail() + " has been modified");
+        }
+    }
+
+    // Reject an update whose field failed validation
+    private static void rejectIfInvalid(String error) {
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- Same table and unique key as the servlet application's (generated by Hibernate from Users)
+create sequence if not exists user_seq start with 1 increment by 1;
+
+create table if not exists "user" (
+    id bigint not null primary key,
+    email varchar(100) not null,
+    email_key varchar(100) not null,
+    password varchar(255) not null,
+    first_name varchar(50),
+    last_name varchar(100),
+    version bigint default 0 not null,
+    constraint uk_user_email_key unique (email_key)
+);
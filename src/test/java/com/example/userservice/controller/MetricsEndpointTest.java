@@ -0,0 +1,43 @@
+package com.example.userservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false) // Metrics export is disabled in tests unless asked for
+class MetricsEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void prometheus_exposesLatencyHistogramsPerLayer() {
+        // GIVEN
+        restTemplate.getForEntity("/api/v1/userservice/users/hedlund.thomas@email.com", String.class); // 200
+        restTemplate.getForEntity("/api/v1/userservice/users/unknown@email.com", String.class); // 404
+
+        // WHEN
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        // THEN
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                // Controller: histogram buckets tagged by endpoint and status
+                .containsPattern("http_server_requests_seconds_bucket\\{.*status=\"200\".*uri=\"/api/v1/userservice/users/\\{email}\"")
+                .containsPattern("http_server_requests_seconds_count\\{.*status=\"404\".*uri=\"/api/v1/userservice/users/\\{email}\"")
+                // Service: one timer per method
+                .containsPattern("userservice_service_seconds_bucket\\{.*method=\"findUserByEmail\"")
+                // Repository: one timer per query
+                .containsPattern("spring_data_repository_invocations_seconds_bucket\\{.*method=\"findViewByEmailKey\"")
+                // Connection pool saturation
+                .contains("hikaricp_connections_pending")
+                .contains("hikaricp_connections_active");
+    }
+}
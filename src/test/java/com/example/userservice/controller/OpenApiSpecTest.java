@@ -0,0 +1,63 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.user.controller.OpenApiSpecController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Keeps the checked-in OpenAPI spec in step with the controllers: the build fails when springdoc generates a different
+// document. After changing the API, regenerate it with mvn test -Dtest=OpenApiSpecTest -Dopenapi.update=true
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OpenApiSpecTest {
+
+    private static final Path SPEC = Path.of("src/main/resources/openapi/openapi.yaml");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void checkedInSpec_matchesTheGeneratedOne() throws IOException {
+        // WHEN
+        String generated = restTemplate.getForObject("/v3/api-docs.yaml", String.class);
+
+        // THEN
+        if (Boolean.getBoolean("openapi.update")) {
+            Files.writeString(SPEC, generated);
+        }
+        assertThat(Files.readString(SPEC))
+                .as("%s is stale, regenerate it with mvn test -Dtest=OpenApiSpecTest -Dopenapi.update=true", SPEC)
+                .isEqualTo(generated);
+    }
+
+    @Test
+    void getSpec_servesTheCheckedInSpecWithETag() throws IOException {
+        // WHEN
+        ResponseEntity<byte[]> response = restTemplate.getForEntity("/openapi.yaml", byte[].class);
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(response.getHeaders().getETag());
+        ResponseEntity<byte[]> revalidated = restTemplate.exchange("/openapi.yaml", HttpMethod.GET,
+                new HttpEntity<>(conditional), byte[].class);
+
+        // THEN
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType())
+                .isEqualTo(MediaType.parseMediaType(OpenApiSpecController.OPENAPI_YAML_VALUE));
+        assertThat(new String(response.getBody(), StandardCharsets.UTF_8)).isEqualTo(Files.readString(SPEC));
+        assertThat(response.getHeaders().getETag()).isNotBlank();
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UserControllerConcurrencyTest {
+
+    private static final int PARALLEL_REQUESTS = 32;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByEmail("race@email.com").ifPresent(userRepository::delete);
+    }
+
+    // Fire many parallel POSTs with the same email and verify exactly one of them creates the user
+    @Test
+    void createUser_sameEmailInParallel_onlyOneSucceeds() throws Exception {
+        // GIVEN
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_REQUESTS);
+        CountDownLatch startGate = new CountDownLatch(1); // Release all requests at the same time
+        List<Future<ResponseEntity<String>>> futures = new ArrayList<>();
+
+        for (int i = 0; i < PARALLEL_REQUESTS; i++) {
+            // Send a plain map, since the password of Users is write-only and would be left out of the request
+            Map<String, String> user = Map.of(
+                    "firstName", "Race", "lastName", "Condition", "email", "race@email.com", "password", "somePassword1");
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                return restTemplate.postForEntity("/api/v1/userservice/users", user, String.class);
+            }));
+        }
+
+        // WHEN
+        startGate.countDown();
+        int created = 0;
+        int rejected = 0;
+        for (Future<ResponseEntity<String>> future : futures) {
+            ResponseEntity<String> response = future.get();
+            if (response.getStatusCode() == HttpStatus.CREATED) {
+                created++;
+            } else {
+                assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST); // Every loser gets the existing 400
+                assertThat(response.getBody()).isEqualTo("Email already exists");
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        // THEN
+        assertThat(created).isEqualTo(1);
+        assertThat(rejected).isEqualTo(PARALLEL_REQUESTS - 1);
+        assertThat(userRepository.findAll())
+                .filteredOn(user -> "race@email.com".equals(user.getEmail()))
+                .hasSize(1);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UserControllerConditionalRequestTest {
+
+    private static final String USER_URL = "/api/v1/userservice/users/etag@email.com";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(new Users("Mike", "Myers", "etag@email.com", "somePassword1"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        restTemplate.delete(USER_URL); // Through the API, so the cached user is evicted too
+    }
+
+    @Test
+    void getUser_answersNotModifiedForCurrentETag() {
+        // GIVEN
+        String etag = restTemplate.getForEntity(USER_URL, String.class).getHeaders().getETag();
+
+        // WHEN
+        ResponseEntity<String> response = restTemplate.exchange(USER_URL, HttpMethod.GET, withHeader(HttpHeaders.IF_NONE_MATCH, etag, null), String.class);
+
+        // THEN
+        assertThat(etag).matches("\"\\d+\\.0\"");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull(); // Nothing is serialized or sent
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+    }
+
+    @Test
+    void updateUser_changesETagAndRejectsStaleIfMatch() {
+        // GIVEN
+        String etag = restTemplate.getForEntity(USER_URL, String.class).getHeaders().getETag();
+        Map<String, String> update = Map.of("firstName", "Michael");
+
+        // WHEN
+        ResponseEntity<String> first = restTemplate.exchange(USER_URL, HttpMethod.PUT, withHeader(HttpHeaders.IF_MATCH, etag, update), String.class);
+        ResponseEntity<String> second = restTemplate.exchange(USER_URL, HttpMethod.PUT, withHeader(HttpHeaders.IF_MATCH, etag, update), String.class);
+        ResponseEntity<String> poll = restTemplate.exchange(USER_URL, HttpMethod.GET, withHeader(HttpHeaders.IF_NONE_MATCH, etag, null), String.class);
+
+        // THEN
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED); // The first update bumped the version
+        assertThat(poll.getStatusCode()).isEqualTo(HttpStatus.OK); // The change is visible to pollers
+        assertThat(poll.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(poll.getBody()).contains("Michael");
+    }
+
+    @Test
+    void deleteUser_rejectsStaleIfMatch() {
+        // GIVEN
+        String etag = restTemplate.getForEntity(USER_URL, String.class).getHeaders().getETag();
+        restTemplate.exchange(USER_URL, HttpMethod.PUT, withHeader(HttpHeaders.IF_MATCH, etag, Map.of("lastName", "Meyers")), String.class);
+
+        // WHEN
+        ResponseEntity<String> response = restTemplate.exchange(USER_URL, HttpMethod.DELETE, withHeader(HttpHeaders.IF_MATCH, etag, null), String.class);
+
+        // THEN
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(userRepository.existsByEmail("etag@email.com")).isTrue();
+    }
+
+    private static HttpEntity<Object> withHeader(String name, String value, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(name, value);
+        return new HttpEntity<>(body, headers);
+    }
+}
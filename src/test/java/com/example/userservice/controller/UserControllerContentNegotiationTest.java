@@ -0,0 +1,140 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.user.config.BinaryContentConfig;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UserControllerContentNegotiationTest {
+
+    private static final String USERS_URL = "/api/v1/userservice/users";
+
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final SmileMapper smileMapper = new SmileMapper();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        restTemplate.delete(USERS_URL + "/binary@email.com");
+    }
+
+    @Test
+    void createAndGetUser_inCbor() throws IOException {
+        // GIVEN
+        byte[] body = cborMapper.writeValueAsBytes(Map.of( // The password is write-only, so not written from a Users
+                "firstName", "Binary", "lastName", "Body", "email", "binary@email.com", "password", "somePassword1"));
+
+        // WHEN
+        ResponseEntity<String> created = restTemplate.exchange(USERS_URL, HttpMethod.POST,
+                entity(body, MediaType.APPLICATION_CBOR, null), String.class);
+        ResponseEntity<byte[]> response = restTemplate.exchange(USERS_URL + "/binary@email.com", HttpMethod.GET,
+                entity(null, null, MediaType.APPLICATION_CBOR), byte[].class);
+
+        // THEN
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        JsonNode user = cborMapper.readTree(response.getBody());
+        assertThat(user.get("email").asText()).isEqualTo("binary@email.com");
+        assertThat(user.has("password")).isFalse(); // Same Jackson model as JSON
+    }
+
+    @Test
+    void updateAndGetUser_inSmile() throws IOException {
+        // GIVEN
+        userRepository.save(new Users("Binary", "Body", "binary@email.com", "somePassword1"));
+        byte[] update = smileMapper.writeValueAsBytes(Map.of("firstName", "Smile"));
+
+        // WHEN
+        ResponseEntity<String> updated = restTemplate.exchange(USERS_URL + "/binary@email.com", HttpMethod.PUT,
+                entity(update, MediaType.parseMediaType(BinaryContentConfig.SMILE_VALUE), null), String.class);
+        ResponseEntity<byte[]> response = restTemplate.exchange(USERS_URL + "/binary@email.com", HttpMethod.GET,
+                entity(null, null, MediaType.parseMediaType(BinaryContentConfig.SMILE_VALUE)), byte[].class);
+
+        // THEN
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(smileMapper.readTree(response.getBody()).get("firstName").asText()).isEqualTo("Smile");
+    }
+
+    @Test
+    void exportUsers_asCborSequence() throws IOException {
+        // WHEN
+        ResponseEntity<byte[]> response = restTemplate.exchange(USERS_URL + "/export", HttpMethod.GET,
+                entity(null, null, BinaryContentConfig.CBOR_SEQ), byte[].class);
+
+        // THEN
+        assertThat(response.getHeaders().getContentType()).isEqualTo(BinaryContentConfig.CBOR_SEQ);
+        try (MappingIterator<JsonNode> users = cborMapper.readerFor(JsonNode.class).readValues(response.getBody())) {
+            List<JsonNode> all = users.readAll();
+            assertThat(all).hasSizeGreaterThanOrEqualTo(2);
+            assertThat(all.get(0).get("email").asText()).isEqualTo("hedlund.thomas@email.com"); // Seeded first
+        }
+    }
+
+    @Test
+    void listUsers_isCompressedWhenAccepted() throws IOException {
+        // GIVEN
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        for (int i = 0; i < 30; i++) { // Enough users for the page to pass server.compression.min-response-size
+            userRepository.save(new Users("Binary", "Body", "binary" + i + "@email.com", "somePassword1"));
+        }
+
+        try {
+            // WHEN
+            ResponseEntity<byte[]> response = restTemplate.exchange(USERS_URL + "?size=50", HttpMethod.GET,
+                    new HttpEntity<>(headers), byte[].class);
+
+            // THEN
+            assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+                JsonNode page = new ObjectMapper().readTree(in);
+                assertThat(page.get("users").size()).isGreaterThanOrEqualTo(30);
+            }
+        } finally {
+            for (int i = 0; i < 30; i++) {
+                userRepository.deleteByEmail("binary" + i + "@email.com");
+            }
+        }
+    }
+
+    private static HttpEntity<byte[]> entity(byte[] body, MediaType contentType, MediaType accept) {
+        HttpHeaders headers = new HttpHeaders();
+        if (contentType != null) {
+            headers.setContentType(contentType);
+        }
+        if (accept != null) {
+            headers.setAccept(List.of(accept));
+        }
+        return new HttpEntity<>(body, headers);
+    }
+}
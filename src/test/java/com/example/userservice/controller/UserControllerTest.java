@@ -1,17 +1,47 @@
 package com.example.userservice.controller;
 
 import com.example.userservice.user.controller.UserController;
+import com.example.userservice.user.dto.BatchCreateResponse;
+import com.example.userservice.user.dto.BatchDeleteResponse;
+import com.example.userservice.user.dto.BatchItemError;
+import com.example.userservice.user.dto.ImportJobStatus;
+import com.example.userservice.user.dto.UserPage;
+import com.example.userservice.user.dto.UserPatch;
+import com.example.userservice.user.dto.UserView;
+import com.example.userservice.user.exceptions.GlobalExceptionHandler;
+import com.example.userservice.user.exceptions.UserNotFoundException;
+import com.example.userservice.user.importer.ImportFormat;
 import com.example.userservice.user.model.Users;
+import com.example.userservice.user.service.UserBatchService;
+import com.example.userservice.user.service.UserExportService;
+import com.example.userservice.user.service.UserImportService;
 import com.example.userservice.user.service.UserService;
+import com.example.userservice.user.validation.UserValidator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class UserControllerTest {
@@ -19,6 +49,15 @@ class UserControllerTest {
     @Mock
     private UserService userService; // Mock UserService
 
+    @Mock
+    private UserBatchService userBatchService; // Mock UserBatchService
+
+    @Mock
+    private UserExportService userExportService; // Mock UserExportService
+
+    @Mock
+    private UserImportService userImportService; // Mock UserImportService
+
     @InjectMocks
     private UserController userController; // Inject mock into UserController
 
@@ -55,6 +94,109 @@ class UserControllerTest {
         assertEquals("User already exists", response.getBody()); // Verify response body
     }
 
+    // Test for creating users in bulk
+    @Test
+    void testCreateUsersBatch() {
+        List<Users> users = List.of(new Users(), new Users());
+        BatchCreateResponse batchResponse = new BatchCreateResponse(2, 1, 1,
+                List.of(new BatchItemError(1, null, "Email is required")));
+
+        when(userBatchService.createUsers(users)).thenReturn(batchResponse); // Mock service call
+
+        ResponseEntity<Object> response = userController.createUsers(users); // Call controller method
+
+        assertEquals(HttpStatus.OK, response.getStatusCode()); // Verify status code
+        assertEquals(batchResponse, response.getBody()); // Verify per-item report is returned
+    }
+
+    // Test for creating users in bulk with an empty batch
+    @Test
+    void testCreateUsersBatchEmpty() {
+        when(userBatchService.createUsers(List.of()))
+                .thenThrow(new IllegalArgumentException("A batch must contain between 1 and 50000 users")); // Mock service call
+
+        ResponseEntity<Object> response = userController.createUsers(List.of()); // Call controller method
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()); // Verify status code
+        assertEquals("A batch must contain between 1 and 50000 users", response.getBody()); // Verify response body
+    }
+
+    // Test for listing a page of users
+    @Test
+    void testListUsersSuccess() {
+        UserPage page = new UserPage(List.of(new Users()), "Mg");
+
+        when(userService.listUsers(null, 50)).thenReturn(page); // Mock service call
+
+        ResponseEntity<Object> response = userController.listUsers(null, 50); // Call controller method
+
+        assertEquals(HttpStatus.OK, response.getStatusCode()); // Verify status code
+        assertEquals(page, response.getBody()); // Verify response body
+    }
+
+    // Test for listing users with an invalid cursor
+    @Test
+    void testListUsersBadRequest() {
+        when(userService.listUsers("bad", 50)).thenThrow(new IllegalArgumentException("Invalid cursor")); // Mock service call
+
+        ResponseEntity<Object> response = userController.listUsers("bad", 50); // Call controller method
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()); // Verify status code
+        assertEquals("Invalid cursor", response.getBody()); // Verify response body
+    }
+
+    // Test for exporting all users as NDJSON
+    @Test
+    void testExportUsers() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ResponseEntity<StreamingResponseBody> response = userController.exportUsers(); // Call controller method
+        response.getBody().writeTo(out); // Stream the body
+
+        assertEquals(HttpStatus.OK, response.getStatusCode()); // Verify status code
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType()); // Verify content type
+        verify(userExportService).exportUsers(out); // Verify the export writes to the response stream
+    }
+
+    // Test for starting a bulk import
+    @Test
+    void testImportUsersAccepted() throws IOException {
+        InputStream body = new ByteArrayInputStream("email,password\n".getBytes(StandardCharsets.UTF_8));
+        ImportJobStatus job = new ImportJobStatus("job-1", "CSV", "QUEUED", 0, 0, 0, 0, null, null, null, List.of());
+
+        when(userImportService.startImport(body, ImportFormat.CSV)).thenReturn(job); // Mock service call
+
+        ResponseEntity<Object> response = userController.importUsers("text/csv; charset=UTF-8", body); // Call controller method
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode()); // Verify status code
+        assertEquals("/api/v1/userservice/users/import/job-1", response.getHeaders().getLocation().toString()); // Verify status location
+        assertEquals(job, response.getBody()); // Verify response body
+    }
+
+    // Test for starting a bulk import when the import queue is full
+    @Test
+    void testImportUsersQueueFull() throws IOException {
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+
+        when(userImportService.startImport(body, ImportFormat.NDJSON)).thenThrow(new RejectedExecutionException()); // Mock service call
+
+        ResponseEntity<Object> response = userController.importUsers("application/x-ndjson", body); // Call controller method
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode()); // Verify status code
+        assertEquals("30", response.getHeaders().getFirst("Retry-After")); // Verify clients are told when to retry
+    }
+
+    // Test for retrieving the progress of an unknown import job
+    @Test
+    void testGetImportStatusNotFound() {
+        when(userImportService.getImportStatus("missing")).thenReturn(Optional.empty()); // Mock service call
+
+        ResponseEntity<Object> response = userController.getImportStatus("missing"); // Call controller method
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode()); // Verify status code
+        assertEquals("Import job missing does not exist", response.getBody()); // Verify response body
+    }
+
     // Test for retrieving a user by email successfully
     @Test
     void testGetUserByEmailSuccess() {
@@ -64,20 +206,21 @@ class UserControllerTest {
         user.setLastName("De Gois"); // Set last name
         user.setPassword("somePassword1"); // Set password
 
-        when(userService.getUserByEmail("degoisb@email.com", "User with email degoisb@email.com does not exist"))
-                .thenReturn(user); // Mock service call
+        UserView view = UserView.of(user);
+        when(userService.findUserByEmail("degoisb@email.com"))
+                .thenReturn(Optional.of(view)); // Mock service call
 
         ResponseEntity<Object> response = userController.getUserByEmail("degoisb@email.com"); // Call controller method
 
         assertEquals(HttpStatus.OK, response.getStatusCode()); // Verify status code
-        assertEquals(user, response.getBody()); // Verify response body
+        assertEquals(view, response.getBody()); // Verify response body
     }
 
     // Test for retrieving a user by email when user is not found
     @Test
     void testGetUserByEmailNotFound() {
-        when(userService.getUserByEmail("example@email.com", "User with email example@email.com does not exist"))
-                .thenThrow(new IllegalStateException("User with email example@email.com does not exist")); // Mock service call
+        when(userService.findUserByEmail("example@email.com"))
+                .thenReturn(Optional.empty()); // Mock service call
 
         ResponseEntity<Object> response = userController.getUserByEmail("example@email.com"); // Call controller method
 
@@ -85,16 +228,67 @@ class UserControllerTest {
         assertEquals("User with email example@email.com does not exist", response.getBody()); // Verify response body
     }
 
-    // Test for retrieving a user by email with invalid format
+    // Test for a not found user answered by GlobalExceptionHandler
     @Test
-    void testGetUserByEmailBadRequest() {
-        when(userService.getUserByEmail("example@email.com", "User with email example@email.com does not exist"))
-                .thenThrow(new IllegalStateException("Invalid email format")); // Mock service call
+    void testUserNotFoundHandled() {
+        ResponseEntity<String> response = new GlobalExceptionHandler()
+                .handleUserNotFoundException(UserNotFoundException.forEmail("example@email.com")); // Call handler method
 
-        ResponseEntity<Object> response = userController.getUserByEmail("example@email.com"); // Call controller method
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode()); // Verify status code
+        assertEquals("User with email example@email.com does not exist", response.getBody()); // Verify response body
+    }
+
+    // Test for an email change that lost the race on the unique index at commit, answered by GlobalExceptionHandler
+    @Test
+    void testDuplicateEmailOnCommitHandled() {
+        ResponseEntity<String> response = new GlobalExceptionHandler().handleDataIntegrityViolationException(
+                new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("Unique index or primary key violation: \"PUBLIC.UK_USER_EMAIL_KEY_INDEX_3\""))); // Call handler method
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()); // Verify status code
-        assertEquals("Invalid email format", response.getBody()); // Verify response body
+        assertEquals("Email already exists", response.getBody()); // Verify response body
+    }
+
+    // Test for any other integrity violation, which is not a taken email
+    @Test
+    void testOtherIntegrityViolationHandled() {
+        ResponseEntity<String> response = new GlobalExceptionHandler().handleDataIntegrityViolationException(
+                new DataIntegrityViolationException("NULL not allowed for column \"PASSWORD\"")); // Call handler method
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode()); // Verify status code
+    }
+
+    // Test for retrieving a user with an email too long to be stored, rejected without calling the service
+    @Test
+    void testGetUserByEmailTooLong() {
+        ResponseEntity<Object> response = userController.getUserByEmail("a".repeat(95) + "@email.com"); // Call controller method
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()); // Verify status code
+        assertEquals(UserValidator.EMAIL_TOO_LONG, response.getBody()); // Verify response body
+        verifyNoInteractions(userService); // Verify the lookup never reached the service
+    }
+
+    // Test for retrieving a user stored under the looser email rule of earlier releases, which writes now reject
+    @Test
+    void testGetUserByEmailInLegacyFormat() {
+        UserView view = UserView.of(new Users("John", "Doe", "john..doe@x.com", "somePassword1"));
+        when(userService.findUserByEmail("john..doe@x.com")).thenReturn(Optional.of(view)); // Mock service call
+
+        ResponseEntity<Object> response = userController.getUserByEmail("john..doe@x.com"); // Call controller method
+
+        assertEquals(HttpStatus.OK, response.getStatusCode()); // Verify status code
+        assertEquals(view, response.getBody()); // Verify response body
+    }
+
+    // Test for retrieving a user with a malformed email, which is looked up like any other and not found
+    @Test
+    void testGetUserByEmailMalformed() {
+        when(userService.findUserByEmail("not-an-email")).thenReturn(Optional.empty()); // Mock service call
+
+        ResponseEntity<Object> response = userController.getUserByEmail("not-an-email"); // Call controller method
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode()); // Verify status code
+        assertEquals("User with email not-an-email does not exist", response.getBody()); // Verify response body
     }
 
     // Test for updating a user successfully
@@ -103,9 +297,9 @@ class UserControllerTest {
         Users updatedUser = new Users();
         updatedUser.setEmail("example@email.com"); // Set up updated user with an email
 
-        doNothing().when(userService).updateUser(anyString(), any(Users.class)); // Mock service call
+        doNothing().when(userService).updateUser(anyString(), any(Users.class), isNull()); // Mock service call
 
-        ResponseEntity<String> response = userController.updateUser("example@email.com", updatedUser); // Call controller method
+        ResponseEntity<String> response = userController.updateUser("example@email.com", null, updatedUser); // Call controller method
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode()); // Verify status code
         assertEquals(null, response.getBody()); // Verify response body is null
@@ -117,12 +311,9 @@ class UserControllerTest {
         Users updatedUser = new Users();
         updatedUser.setEmail("example@email.com"); // Set up updated user with an email
 
-        doThrow(new IllegalStateException("User not found")).when(userService).updateUser(anyString(), any(Users.class)); // Mock service call
+        doThrow(UserNotFoundException.forEmail("example@email.com")).when(userService).updateUser(anyString(), any(Users.class), isNull()); // Mock service call
 
-        ResponseEntity<String> response = userController.updateUser("example@email.com", updatedUser); // Call controller method
-
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode()); // Verify status code
-        assertEquals("User not found", response.getBody()); // Verify response body
+        assertThrows(UserNotFoundException.class, () -> userController.updateUser("example@email.com", null, updatedUser)); // Left to GlobalExceptionHandler
     }
 
     // Test for updating a user with invalid request
@@ -131,20 +322,53 @@ class UserControllerTest {
         Users updatedUser = new Users();
         updatedUser.setEmail("example@email.com"); // Set up updated user with an email
 
-        doThrow(new IllegalArgumentException("Invalid update request")).when(userService).updateUser(anyString(), any(Users.class)); // Mock service call
+        doThrow(new IllegalArgumentException("Invalid update request")).when(userService).updateUser(anyString(), any(Users.class), isNull()); // Mock service call
 
-        ResponseEntity<String> response = userController.updateUser("example@email.com", updatedUser); // Call controller method
+        ResponseEntity<String> response = userController.updateUser("example@email.com", null, updatedUser); // Call controller method
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()); // Verify status code
         assertEquals("Invalid update request", response.getBody()); // Verify response body
     }
 
+    // Test for patching a user successfully
+    @Test
+    void testPatchUserSuccess() throws IOException {
+        JsonNode patch = new ObjectMapper().readTree("{\"firstName\":\"Michael\"}"); // Merge patch with one field
+
+        ResponseEntity<String> response = userController.patchUser("example@email.com", null, patch); // Call controller method
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode()); // Verify status code
+        verify(userService).patchUser(eq("example@email.com"), any(UserPatch.class), isNull()); // Verify service call
+    }
+
+    // Test for patching a field that cannot be patched
+    @Test
+    void testPatchUserUnknownField() throws IOException {
+        JsonNode patch = new ObjectMapper().readTree("{\"id\":5}"); // The id is not patchable
+
+        ResponseEntity<String> response = userController.patchUser("example@email.com", null, patch); // Call controller method
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()); // Verify status code
+        assertEquals("Field id cannot be patched", response.getBody()); // Verify response body
+        verifyNoInteractions(userService); // Rejected before reaching the service
+    }
+
+    // Test for patching a user when user is not found
+    @Test
+    void testPatchUserNotFound() throws IOException {
+        JsonNode patch = new ObjectMapper().readTree("{\"lastName\":null}"); // Merge patch removing a field
+
+        doThrow(UserNotFoundException.forEmail("example@email.com")).when(userService).patchUser(anyString(), any(UserPatch.class), isNull()); // Mock service call
+
+        assertThrows(UserNotFoundException.class, () -> userController.patchUser("example@email.com", null, patch)); // Left to GlobalExceptionHandler
+    }
+
     // Test for deleting a user successfully
     @Test
     void testDeleteUserSuccess() {
-        doNothing().when(userService).deleteUser("example@email.com"); // Mock service call
+        doNothing().when(userService).deleteUser("example@email.com", null); // Mock service call
 
-        ResponseEntity<String> response = userController.deleteUser("example@email.com"); // Call controller method
+        ResponseEntity<String> response = userController.deleteUser("example@email.com", null); // Call controller method
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode()); // Verify status code
         assertEquals(null, response.getBody()); // Verify response body is null
@@ -153,11 +377,43 @@ class UserControllerTest {
     // Test for deleting a user when user is not found
     @Test
     void testDeleteUserNotFound() {
-        doThrow(new IllegalArgumentException("User not found")).when(userService).deleteUser("example@email.com"); // Mock service call
+        doThrow(new IllegalArgumentException("User not found")).when(userService).deleteUser("example@email.com", null); // Mock service call
 
-        ResponseEntity<String> response = userController.deleteUser("example@email.com"); // Call controller method
+        ResponseEntity<String> response = userController.deleteUser("example@email.com", null); // Call controller method
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode()); // Verify status code
         assertEquals("User not found", response.getBody()); // Verify response body
     }
+
+    // Test for deleting a user when no row was deleted
+    @Test
+    void testDeleteUserNothingDeleted() {
+        doThrow(UserNotFoundException.forEmail("example@email.com")).when(userService).deleteUser("example@email.com", null); // Mock service call
+
+        assertThrows(UserNotFoundException.class, () -> userController.deleteUser("example@email.com", null)); // Left to GlobalExceptionHandler
+    }
+
+    // Test for deleting users in bulk
+    @Test
+    void testDeleteUsersBatch() {
+        List<String> emails = List.of("one@email.com", "two@email.com");
+        BatchDeleteResponse batchResponse = new BatchDeleteResponse(2, 1);
+        when(userBatchService.deleteUsers(emails)).thenReturn(batchResponse); // Mock service call
+
+        ResponseEntity<Object> response = userController.deleteUsers(emails); // Call controller method
+
+        assertEquals(HttpStatus.OK, response.getStatusCode()); // Verify status code
+        assertEquals(batchResponse, response.getBody()); // Verify response body
+    }
+
+    // Test for deleting an empty batch of users
+    @Test
+    void testDeleteUsersBatchEmpty() {
+        when(userBatchService.deleteUsers(List.of())).thenThrow(new IllegalArgumentException("A batch must contain between 1 and 50000 emails")); // Mock service call
+
+        ResponseEntity<Object> response = userController.deleteUsers(List.of()); // Call controller method
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()); // Verify status code
+        assertEquals("A batch must contain between 1 and 50000 emails", response.getBody()); // Verify response body
+    }
 }
@@ -0,0 +1,137 @@
+package com.example.userservice.datasource;
+
+import com.example.userservice.user.config.CacheConfig;
+import com.example.userservice.user.datasource.ReadYourWritesFilter;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+// Primary and replica are two separate H2 databases; replicate() copies the primary over, standing in for replication
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "userservice.datasource.replica.enabled=true",
+        "userservice.datasource.replica.jdbc-url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "userservice.datasource.replica.read-only=false", // Lets replicate() write to it
+        "userservice.datasource.replica.max-lag=3s",
+        "userservice.email-filter.enabled=false" // The filter would answer for emails missing from the primary
+})
+class ReadReplicaRoutingTest {
+
+    private static final String USERS_URL = "/api/v1/userservice/users";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() {
+        replicate();
+        cacheManager.getCache(CacheConfig.USERS_BY_EMAIL).clear();
+    }
+
+    @Test
+    void getUserByEmail_readsFromReplica() {
+        // GIVEN
+        userService.createUser(new Users("Mike", "Myers", "replica@email.com", "somePassword1")); // Written to the primary
+
+        // WHEN
+        // THEN
+        assertThatThrownBy(() -> userService.getUserByEmail("replica@email.com", null)) // Not replicated yet
+                .isInstanceOf(IllegalStateException.class);
+        replicate();
+        assertThat(userService.getUserByEmail("replica@email.com", null).firstName()).isEqualTo("Mike");
+    }
+
+    @Test
+    void getUser_readsOwnWritesFromPrimaryDespiteLag() {
+        // GIVEN
+        ResponseEntity<String> created = restTemplate.postForEntity(USERS_URL,
+                Map.of("firstName", "Mike", "lastName", "Myers", "email", "lag@email.com", "password", "somePassword1"), String.class);
+        String cookie = created.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+
+        // WHEN
+        ResponseEntity<String> otherClient = restTemplate.getForEntity(USERS_URL + "/lag@email.com", String.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, cookie.split(";")[0]);
+        ResponseEntity<String> sameClient = restTemplate.exchange(USERS_URL + "/lag@email.com", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        // THEN
+        assertThat(created.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(cookie).startsWith(ReadYourWritesFilter.COOKIE_NAME + "=");
+        assertThat(otherClient.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND); // The replica lags behind
+        assertThat(sameClient.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void getUser_readsOwnUpdateDespiteStaleCacheEntry() {
+        // GIVEN
+        userService.createUser(new Users("Mike", "Myers", "update-lag@email.com", "somePassword1"));
+        replicate();
+        HttpHeaders update = new HttpHeaders();
+        update.setIfMatch(restTemplate.getForEntity(USERS_URL + "/update-lag@email.com", String.class).getHeaders().getETag());
+        ResponseEntity<String> updated = restTemplate.exchange(USERS_URL + "/update-lag@email.com", HttpMethod.PUT,
+                new HttpEntity<>(Map.of("firstName", "Michael"), update), String.class);
+        HttpHeaders sameClient = new HttpHeaders();
+        sameClient.add(HttpHeaders.COOKIE, updated.getHeaders().getFirst(HttpHeaders.SET_COOKIE).split(";")[0]);
+
+        // WHEN
+        // Another client reads the lagging replica right after the update evicted the user, caching the old row again
+        ResponseEntity<String> otherClient = restTemplate.getForEntity(USERS_URL + "/update-lag@email.com", String.class);
+        ResponseEntity<String> writer = restTemplate.exchange(USERS_URL + "/update-lag@email.com", HttpMethod.GET,
+                new HttpEntity<>(sameClient), String.class);
+
+        // THEN
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(otherClient.getBody()).contains("\"firstName\":\"Mike\"");
+        // The writer skips the cache, so it sees its update and an ETag its next If-Match will pass with
+        assertThat(writer.getBody()).contains("\"firstName\":\"Michael\"");
+        assertThat(writer.getHeaders().getETag()).isNotEqualTo(otherClient.getHeaders().getETag());
+        // Once max-lag has passed the stale entry is evicted again, and everyone reads the caught up replica
+        replicate();
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> cacheManager.getCache(CacheConfig.USERS_BY_EMAIL).get("update-lag@email.com") == null);
+        assertThat(restTemplate.getForObject(USERS_URL + "/update-lag@email.com", String.class))
+                .contains("\"firstName\":\"Michael\"");
+    }
+
+    // Copy schema and data of the primary to the replica
+    private void replicate() {
+        List<String> script = new JdbcTemplate(primaryDataSource).queryForList("script drop", String.class);
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        script.forEach(replica::execute);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.userservice.limiter;
+
+import com.example.userservice.user.limiter.AdaptiveConcurrencyLimit;
+import com.example.userservice.user.limiter.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void limitGrowsWhileLatencyIsSteady() {
+        // GIVEN
+        AdaptiveConcurrencyLimit underTest = new AdaptiveConcurrencyLimit(20, 1, 200, Duration.ZERO, 1);
+
+        // WHEN
+        runRounds(underTest, 10, FAST);
+
+        // THEN
+        assertThat(underTest.getLimit()).isGreaterThan(20);
+        assertThat(underTest.getInflight()).isZero();
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRises() {
+        // GIVEN
+        AdaptiveConcurrencyLimit underTest = new AdaptiveConcurrencyLimit(50, 5, 100, Duration.ZERO, 1);
+        runRounds(underTest, 10, FAST);
+        int limitBefore = underTest.getLimit();
+
+        // WHEN
+        runRounds(underTest, 3, SLOW);
+
+        // THEN
+        assertThat(underTest.getLimit()).isLessThan(limitBefore / 2);
+        assertThat(underTest.getLimit()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void limitDoesNotGrowWhileMostlyIdle() {
+        // GIVEN
+        AdaptiveConcurrencyLimit underTest = new AdaptiveConcurrencyLimit(20, 1, 200, Duration.ZERO, 1);
+
+        // WHEN
+        for (int i = 0; i < 1000; i++) {
+            underTest.tryAcquire();
+            underTest.release(FAST);
+        }
+
+        // THEN
+        assertThat(underTest.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void doFilter_rejectsWith503AndRetryAfterWhenTheLimitIsReached() throws Exception {
+        // GIVEN
+        AdaptiveConcurrencyLimit readLimit = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(1), 10);
+        AdaptiveConcurrencyLimit writeLimit = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(1), 10);
+        ConcurrencyLimitFilter underTest = new ConcurrencyLimitFilter(readLimit, writeLimit, Duration.ofSeconds(2));
+        readLimit.tryAcquire(); // A read already in flight
+
+        // WHEN
+        MockHttpServletResponse read = new MockHttpServletResponse();
+        MockFilterChain readChain = new MockFilterChain();
+        underTest.doFilter(new MockHttpServletRequest("GET", "/api/v1/userservice/users"), read, readChain);
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        MockFilterChain writeChain = new MockFilterChain();
+        underTest.doFilter(new MockHttpServletRequest("POST", "/api/v1/userservice/users"), write, writeChain);
+
+        // THEN
+        assertThat(read.getStatus()).isEqualTo(503);
+        assertThat(read.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(read.getContentAsString()).isEqualTo(ConcurrencyLimitFilter.REJECTED_MESSAGE);
+        assertThat(readChain.getRequest()).isNull(); // Never reached the controller
+        assertThat(write.getStatus()).isEqualTo(200); // Writes have their own limit
+        assertThat(writeChain.getRequest()).isNotNull();
+        assertThat(writeLimit.getInflight()).isZero();
+        assertThat(readLimit.getDropped()).isEqualTo(1);
+    }
+
+    @Test
+    void bindTo_registersLimitInflightAndDroppedPerType() throws Exception {
+        // GIVEN
+        AdaptiveConcurrencyLimit readLimit = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(1), 10);
+        AdaptiveConcurrencyLimit writeLimit = new AdaptiveConcurrencyLimit(7, 1, 10, Duration.ofSeconds(1), 10);
+        ConcurrencyLimitFilter underTest = new ConcurrencyLimitFilter(readLimit, writeLimit, Duration.ofSeconds(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        underTest.bindTo(registry);
+        readLimit.tryAcquire();
+
+        // WHEN
+        underTest.doFilter(new MockHttpServletRequest("GET", "/api/v1/userservice/users"),
+                new MockHttpServletResponse(), new MockFilterChain());
+
+        // THEN
+        assertThat(registry.get("userservice.concurrency.limit").tag("type", "write").gauge().value()).isEqualTo(7);
+        assertThat(registry.get("userservice.concurrency.inflight").tag("type", "read").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("userservice.concurrency.dropped").tag("type", "read").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("userservice.concurrency.dropped").tag("type", "write").functionCounter().count()).isZero();
+    }
+
+    // Fill the limit, then release every slot with the given latency
+    private static void runRounds(AdaptiveConcurrencyLimit limit, int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(rttNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.userservice.lookup;
+
+import com.example.userservice.user.lookup.EmailBloomFilter;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.repository.UserRepository;
+import com.example.userservice.user.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "userservice.email-filter.enabled=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class EmailBloomFilterTest {
+
+    @Autowired
+    private EmailBloomFilter underTest;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByEmail("bloom@email.com").ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void getUserByEmail_unknownEmailIsAnsweredWithoutQuery() {
+        // GIVEN
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> userService.getUserByEmail("nobody@email.com", "User with email nobody@email.com does not exist"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void seededAndNewUsersAreNeverRuledOut() {
+        // GIVEN
+        userRepository.save(new Users("Bloom", "Filter", "bloom@email.com", "somePassword1")); // Bypasses the service
+
+        // WHEN & THEN
+        assertThat(underTest.isDefinitelyAbsent("hedlund.thomas@email.com")).isFalse(); // Seeded before the build
+        assertThat(underTest.isDefinitelyAbsent("bloom@email.com")).isFalse(); // Added by the entity listener
+        assertThat(userService.getUserByEmail("bloom@email.com", null).email()).isEqualTo("bloom@email.com");
+    }
+
+    @Test
+    void add_neverGivesFalseNegativesAndKeepsFalsePositivesRare() {
+        // GIVEN
+        for (int i = 0; i < 20_000; i++) {
+            underTest.add("member" + i + "@email.com");
+        }
+
+        // WHEN
+        int falsePositives = 0;
+        for (int i = 0; i < 20_000; i++) {
+            assertThat(underTest.isDefinitelyAbsent("member" + i + "@email.com")).isFalse();
+            if (!underTest.isDefinitelyAbsent("stranger" + i + "@email.com")) {
+                falsePositives++;
+            }
+        }
+
+        // THEN
+        assertThat(falsePositives).isLessThan(200); // Configured for 1% at full capacity, far below it here
+    }
+
+    @Test
+    void rebuild_dropsDeletedEmails() {
+        // GIVEN
+        userRepository.save(new Users("Bloom", "Filter", "bloom@email.com", "somePassword1"));
+        userService.deleteUser("bloom@email.com", null);
+
+        // WHEN
+        underTest.rebuild();
+
+        // THEN
+        assertThat(underTest.isDefinitelyAbsent("bloom@email.com")).isTrue();
+        assertThat(underTest.isDefinitelyAbsent("juliexmas@email.com")).isFalse();
+    }
+}
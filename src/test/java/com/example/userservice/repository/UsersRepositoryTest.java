@@ -1,13 +1,23 @@
 package com.example.userservice.repository;
 
+import com.example.userservice.user.dto.UserView;
 import com.example.userservice.user.model.Users;
 import com.example.userservice.user.repository.UserRepository;
+import org.hibernate.Session;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 class UsersRepositoryTest {
@@ -15,6 +25,9 @@ class UsersRepositoryTest {
     @Autowired
     private UserRepository underTest;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     @AfterEach
     void tearDown() {
         underTest.deleteAll();
@@ -50,4 +63,74 @@ class UsersRepositoryTest {
         // THEN
         assertThat(exists).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void itShouldFindAUserIgnoringCaseAndSurroundingSpaces() {
+        // GIVEN
+        underTest.save(new Users("Mike", "Myers", "Mike.Myers@Email.com", "password"));
+
+        // WHEN
+        Optional<Users> found = underTest.findByEmail("  mike.myers@EMAIL.com ");
+
+        // THEN
+        assertThat(found).map(Users::getEmail).contains("Mike.Myers@Email.com");
+        assertThat(underTest.existsByEmail("MIKE.MYERS@email.com")).isTrue();
+    }
+
+    @Test
+    void itShouldRejectAnEmailThatOnlyDiffersInCase() {
+        // GIVEN
+        underTest.saveAndFlush(new Users("Mike", "Myers", "example@email.com", "password"));
+
+        // WHEN
+        // THEN
+        assertThatThrownBy(() -> underTest.saveAndFlush(new Users("Mike", "Myers", "Example@Email.com", "password")))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining(Users.EMAIL_UNIQUE_CONSTRAINT.toUpperCase());
+    }
+
+    @Test
+    void itShouldDeleteAUserIgnoringCase() {
+        // GIVEN
+        underTest.save(new Users("Mike", "Myers", "example@email.com", "password"));
+
+        // WHEN
+        int deleted = underTest.deleteByEmail("EXAMPLE@email.com");
+
+        // THEN
+        assertThat(deleted).isEqualTo(1);
+        assertThat(underTest.existsByEmail("example@email.com")).isFalse();
+    }
+
+    @Test
+    void itShouldReturnTheUsersAfterTheCursorInIdOrder() {
+        // GIVEN
+        List<Users> saved = underTest.saveAll(List.of(
+                new Users("Mike", "Myers", "first@email.com", "password"),
+                new Users("Mike", "Myers", "second@email.com", "password"),
+                new Users("Mike", "Myers", "third@email.com", "password")));
+
+        // WHEN
+        Slice<Users> slice = underTest.findByIdGreaterThanOrderByIdAsc(saved.get(0).getId(), PageRequest.of(0, 1));
+
+        // THEN
+        assertThat(slice.getContent()).extracting(Users::getEmail).containsExactly("second@email.com");
+        assertThat(slice.hasNext()).isTrue();
+    }
+
+    @Test
+    void itShouldFindTheViewOfAUserWithoutLoadingTheEntity() {
+        // GIVEN
+        Users saved = underTest.save(new Users("Mike", "Myers", "example@email.com", "password"));
+        entityManager.flush();
+        entityManager.clear();
+
+        // WHEN
+        Optional<UserView> view = underTest.findViewByEmail(" EXAMPLE@email.com ");
+
+        // THEN
+        assertThat(view).contains(new UserView(saved.getId(), "example@email.com", "Mike", "Myers", saved.getVersion()));
+        // Selected straight into the record: nothing was added to the persistence context
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.userservice.security;
+
+import com.example.userservice.user.security.PasswordHasher;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    @Test
+    void hashAndVerify() {
+        // GIVEN
+        PasswordHasher underTest = new PasswordHasher(2, 8, 4, Duration.ZERO, Duration.ofSeconds(5));
+
+        // WHEN
+        String hash = underTest.hash("somePassword1");
+
+        // THEN
+        assertThat(hash).startsWith("$2a$04$").isNotEqualTo("somePassword1");
+        assertThat(underTest.verify("somePassword1", hash)).isTrue();
+        assertThat(underTest.verify("otherPassword1", hash)).isFalse();
+        assertThat(underTest.verify("somePassword1", null)).isFalse(); // Unknown user
+    }
+
+    @Test
+    void hashAsyncAndVerifyAsync() throws Exception {
+        // GIVEN
+        PasswordHasher underTest = new PasswordHasher(2, 8, 4, Duration.ZERO, Duration.ofSeconds(5));
+
+        // WHEN
+        String hash = underTest.hashAsync("somePassword1").get();
+
+        // THEN
+        assertThat(hash).startsWith("$2a$04$");
+        assertThat(underTest.verifyAsync("somePassword1", hash).get()).isTrue();
+        assertThat(underTest.verifyAsync("otherPassword1", hash).get()).isFalse();
+        assertThat(underTest.verifyAsync("somePassword1", null).get()).isFalse(); // Unknown user
+    }
+
+    @Test
+    void hashAsync_failsWithRejectedExecutionWhenItTimesOut() {
+        // GIVEN
+        PasswordHasher underTest = new PasswordHasher(1, 1, 14, Duration.ZERO, Duration.ofMillis(1));
+
+        // WHEN
+        // THEN
+        assertThatThrownBy(() -> underTest.hashAsync("somePassword1").get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void hashAll_hashesEveryPasswordEvenWhenThePoolIsFull() {
+        // GIVEN
+        PasswordHasher underTest = new PasswordHasher(1, 1, 4, Duration.ZERO, Duration.ofSeconds(5));
+        List<String> passwords = List.of("password1", "password2", "password3", "password4", "password5");
+
+        // WHEN
+        List<String> hashes = underTest.hashAll(passwords);
+
+        // THEN
+        assertThat(hashes).hasSize(5);
+        for (int i = 0; i < passwords.size(); i++) {
+            assertThat(underTest.verify(passwords.get(i), hashes.get(i))).isTrue();
+        }
+    }
+
+    @Test
+    void calibration_picksCostWithinTargetLatency() {
+        // GIVEN & WHEN
+        PasswordHasher underTest = new PasswordHasher(1, 8, 4, Duration.ofMillis(20), Duration.ofSeconds(5));
+
+        // THEN
+        assertThat(underTest.getCost()).isBetween(4, 12);
+    }
+
+    @Test
+    void hash_rejectsWhenQueueIsFull() throws Exception {
+        // GIVEN
+        // One worker and one queue slot with a slow cost, so the third concurrent hash has nowhere to go
+        PasswordHasher underTest = new PasswordHasher(1, 1, 12, Duration.ZERO, Duration.ofSeconds(30));
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(callers.submit(() -> {
+                startGate.await();
+                return underTest.hash("somePassword1");
+            }));
+        }
+
+        // WHEN
+        startGate.countDown();
+        int rejected = 0;
+        for (Future<String> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+                rejected++;
+            }
+        }
+        callers.shutdown();
+
+        // THEN
+        assertThat(rejected).isGreaterThanOrEqualTo(1);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.userservice.service;
+
+import com.example.userservice.user.dto.BatchCreateResponse;
+import com.example.userservice.user.dto.BatchDeleteResponse;
+import com.example.userservice.user.dto.BatchItemError;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.repository.UserRepository;
+import com.example.userservice.user.service.UserBatchService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserBatchServiceTest {
+
+    @Autowired
+    private UserBatchService underTest;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll(userRepository.findAll().stream()
+                .filter(user -> user.getEmail().startsWith("batch"))
+                .toList());
+    }
+
+    @Test
+    void createUsers_insertsInJdbcBatches() {
+        // GIVEN
+        List<Users> users = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            users.add(new Users("Batch", "User", "batch" + i + "@email.com", "somePassword1"));
+        }
+
+        // WHEN
+        BatchCreateResponse response = underTest.createUsers(users);
+
+        // THEN
+        assertThat(response.created()).isEqualTo(500);
+        assertThat(response.failed()).isZero();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(500);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(50); // One statement per JDBC batch, not per row
+        assertThat(userRepository.existsByEmail("batch499@email.com")).isTrue();
+    }
+
+    @Test
+    void createUsers_reportsErrorsPerItem() {
+        // GIVEN
+        userRepository.save(new Users("Batch", "Existing", "batch.existing@email.com", "somePassword1"));
+        List<Users> users = new ArrayList<>();
+        users.add(new Users("Batch", "Valid", "batch.valid@email.com", "somePassword1"));
+        users.add(new Users("Batch", "Invalid", "batch.invalid", "somePassword1"));
+        users.add(new Users("Batch", "Short", "batch.short@email.com", "short"));
+        users.add(new Users("Batch", "Existing", "batch.existing@email.com", "somePassword1"));
+        users.add(new Users("Batch", "Repeated", "batch.valid@email.com", "somePassword1"));
+        users.add(null);
+
+        // WHEN
+        BatchCreateResponse response = underTest.createUsers(users);
+
+        // THEN
+        assertThat(response.received()).isEqualTo(6);
+        assertThat(response.created()).isEqualTo(1);
+        assertThat(response.failed()).isEqualTo(5);
+        assertThat(response.errors()).extracting(BatchItemError::index).containsExactly(1, 2, 3, 4, 5);
+        assertThat(response.errors()).extracting(BatchItemError::message).containsExactly(
+                "Email should be valid",
+                "Password must be between 8 and 20 characters",
+                "Email already exists",
+                "Email already exists",
+                "User is required");
+    }
+
+    @Test
+    void createUsers_retriesARolledBackChunkOneUserAtATime() {
+        // GIVEN
+        // Inserted behind the service's back, as a concurrent create would, so the email passes the pre-check
+        // and only the unique index rejects it, rolling back the whole chunk
+        jdbcTemplate.update("insert into \"user\" (id, email, email_key, first_name, last_name, password, version) "
+                + "values (900000001, 'batch.taken@email.com', 'batch.taken@email.com', 'Batch', 'Taken', 'x', 0)");
+        List<Users> users = List.of(
+                new Users("Batch", "First", "batch.first@email.com", "somePassword1"),
+                new Users("Batch", "Taken", "batch.taken@email.com", "somePassword1"),
+                new Users("Batch", "Second", "batch.second@email.com", "somePassword1"));
+
+        // WHEN
+        BatchCreateResponse response = underTest.createUsers(users);
+
+        // THEN
+        assertThat(response.created()).isEqualTo(2);
+        assertThat(response.errors()).extracting(BatchItemError::index).containsExactly(1);
+        // Inserted as new on the retry: the users themselves got ids and the initial version
+        assertThat(List.of(users.get(0), users.get(2))).allSatisfy(user -> {
+            assertThat(user.getId()).isNotNull();
+            assertThat(user.getVersion()).isZero();
+        });
+        assertThat(userRepository.existsByEmail("batch.second@email.com")).isTrue();
+    }
+
+    @Test
+    void deleteUsers_deletesWithOneStatementPerChunk() {
+        // GIVEN
+        List<Users> users = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            users.add(new Users("Batch", "User", "batch" + i + "@email.com", "somePassword1"));
+            emails.add("batch" + i + "@email.com");
+        }
+        underTest.createUsers(users);
+        emails.add("batch.unknown@email.com"); // Not registered
+        emails.add("batch0@email.com"); // Repeated
+        statistics.clear();
+
+        // WHEN
+        BatchDeleteResponse response = underTest.deleteUsers(emails);
+
+        // THEN
+        assertThat(response.received()).isEqualTo(1501);
+        assertThat(response.deleted()).isEqualTo(1500);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2); // Chunks of 1000, no entity is loaded
+        assertThat(userRepository.existsByEmail("batch1499@email.com")).isFalse();
+    }
+
+    @Test
+    void createUsers_rejectsEmptyBatch() {
+        assertThatThrownBy(() -> underTest.createUsers(List.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("A batch must contain between 1 and 50000 users");
+    }
+}
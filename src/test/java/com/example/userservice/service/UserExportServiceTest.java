@@ -0,0 +1,117 @@
+package com.example.userservice.service;
+
+import com.example.userservice.user.service.UserExportService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS) // Generate the dataset once for all tests
+class UserExportServiceTest {
+
+    private static final int GENERATED_USERS = 200_000;
+    private static final long FIRST_GENERATED_ID = 1_000_000L; // Far above the ids handed out by the sequence
+    private static final int SAMPLE_EVERY_LINES = 20_000;
+    private static final long MAX_HEAP_GROWTH_BYTES = 16L * 1024 * 1024; // Keeping every row attached costs ~45MB here
+
+    @Autowired
+    private UserExportService underTest;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void setUp() {
+        // Generate a large dataset directly over JDBC so the export is the only thing holding entities
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < GENERATED_USERS; i++) {
+            rows.add(new Object[]{FIRST_GENERATED_ID + i, "export" + i + "@email.com", "export" + i + "@email.com", "somePassword1", "Export", "User"});
+            if (rows.size() == 10_000) {
+                insert(rows);
+                rows.clear();
+            }
+        }
+        insert(rows);
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("delete from \"user\" where id >= ?", FIRST_GENERATED_ID);
+    }
+
+    @Test
+    void exportUsers_writesOneJsonDocumentPerLine() throws Exception {
+        // GIVEN
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // WHEN
+        long count = underTest.exportUsers(out);
+
+        // THEN
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(lines.length).isGreaterThanOrEqualTo(GENERATED_USERS);
+        assertThat(lines[lines.length - 1])
+                .startsWith("{")
+                .contains("\"email\":\"export" + (GENERATED_USERS - 1) + "@email.com\""); // Rows come out in id order
+    }
+
+    @Test
+    void exportUsers_keepsHeapBoundedWhileStreaming() throws Exception {
+        // GIVEN
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+
+        // WHEN
+        long count = underTest.exportUsers(out);
+
+        // THEN
+        assertThat(count).isGreaterThanOrEqualTo(GENERATED_USERS);
+        assertThat(out.samples).hasSizeGreaterThanOrEqualTo(GENERATED_USERS / SAMPLE_EVERY_LINES);
+        long firstSample = out.samples.get(0);
+        long maxSample = out.samples.stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertThat(maxSample - firstSample)
+                .as("heap growth while exporting %d rows", count)
+                .isLessThan(MAX_HEAP_GROWTH_BYTES);
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(
+                "insert into \"user\" (id, email, email_key, password, first_name, last_name) values (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // Discards the export and records the live heap after a GC every few thousand lines
+    private static class HeapSamplingOutputStream extends OutputStream {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final List<Long> samples = new ArrayList<>();
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % SAMPLE_EVERY_LINES == 0) {
+                System.gc();
+                samples.add(memory.getHeapMemoryUsage().getUsed());
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.userservice.service;
+
+import com.example.userservice.user.dto.BatchItemError;
+import com.example.userservice.user.dto.ImportJobStatus;
+import com.example.userservice.user.importer.ImportFormat;
+import com.example.userservice.user.repository.UserRepository;
+import com.example.userservice.user.security.PasswordHasher;
+import com.example.userservice.user.service.UserImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class UserImportServiceTest {
+
+    @Autowired
+    private UserImportService underTest;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll(userRepository.findAll().stream()
+                .filter(user -> user.getEmail().startsWith("import"))
+                .toList());
+    }
+
+    @Test
+    void importUsers_fromCsv() throws Exception {
+        // GIVEN
+        String csv = """
+                email,password,first_name,last_name
+                import.one@email.com,somePassword1,Mike,Myers
+                "import.two@email.com","some,Password""2",Julie,"Christmas"
+                import.invalid,somePassword1,Mike,Myers
+
+                import.one@email.com,somePassword1,Mike,Myers
+                """;
+
+        // WHEN
+        ImportJobStatus status = awaitCompletion(underTest.startImport(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV));
+
+        // THEN
+        assertThat(status.state()).isEqualTo("COMPLETED");
+        assertThat(status.processed()).isEqualTo(4);
+        assertThat(status.created()).isEqualTo(2);
+        assertThat(status.rejected()).isEqualTo(2);
+        assertThat(status.rowsPerSecond()).isPositive();
+        assertThat(status.errors()).extracting(BatchItemError::index).containsExactly(3, 4); // Reported by record number
+        assertThat(userRepository.findByEmail("import.two@email.com"))
+                .hasValueSatisfying(user -> assertThat(passwordHasher.verify("some,Password\"2", user.getPassword())).isTrue()); // Stored as a hash
+    }
+
+    @Test
+    void importUsers_fromNdjson() throws Exception {
+        // GIVEN
+        String ndjson = """
+                {"email":"import.three@email.com","password":"somePassword1","firstName":"Mike"}
+                {"email":"import.four@email.com",
+                {"email":"import.five@email.com","password":"short"}
+                """;
+
+        // WHEN
+        ImportJobStatus status = awaitCompletion(underTest.startImport(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON));
+
+        // THEN
+        assertThat(status.state()).isEqualTo("COMPLETED");
+        assertThat(status.processed()).isEqualTo(3);
+        assertThat(status.created()).isEqualTo(1);
+        assertThat(status.errors()).extracting(BatchItemError::index).containsExactlyInAnyOrder(2, 3);
+        assertThat(status.errors()).extracting(BatchItemError::message)
+                .anyMatch(message -> message.startsWith("Malformed JSON"))
+                .contains("Password must be between 8 and 20 characters");
+        assertThat(userRepository.existsByEmail("import.three@email.com")).isTrue();
+    }
+
+    @Test
+    void getImportStatus_unknownJob() {
+        assertThat(underTest.getImportStatus("missing")).isEmpty();
+    }
+
+    private ImportJobStatus awaitCompletion(ImportJobStatus started) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            ImportJobStatus status = underTest.getImportStatus(started.id()).orElseThrow();
+            if (!status.state().equals("QUEUED") && !status.state().equals("RUNNING")) {
+                return status;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Import " + started.id() + " did not finish");
+    }
+}
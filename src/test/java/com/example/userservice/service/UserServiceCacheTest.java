@@ -0,0 +1,108 @@
+package com.example.userservice.service;
+
+import com.example.userservice.user.config.CacheConfig;
+import com.example.userservice.user.dto.UserView;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.repository.UserRepository;
+import com.example.userservice.user.service.UserService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class UserServiceCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+        cache.clear();
+        userRepository.save(new Users("Mike", "Myers", "cached@email.com", "somePassword1"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByEmail("cached@email.com").ifPresent(userRepository::delete);
+        userRepository.findByEmail("renamed@email.com").ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void getUserByEmail_secondLookupIsServedFromCache() {
+        // GIVEN
+        CacheStats before = stats();
+
+        // WHEN
+        UserView first = userService.getUserByEmail("cached@email.com", null);
+        UserView second = userService.getUserByEmail("cached@email.com", null);
+
+        // THEN
+        assertThat(second).isSameAs(first); // The second call returns the cached instance
+        assertThat(stats().minus(before).missCount()).isEqualTo(1);
+        assertThat(stats().minus(before).hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findUserByEmail_sharesTheCacheAndNeverCachesMisses() {
+        // GIVEN
+        UserView cached = userService.getUserByEmail("cached@email.com", null);
+
+        // WHEN
+        boolean missing = userService.findUserByEmail("renamed@email.com").isEmpty();
+        userRepository.save(new Users("Mike", "Myers", "renamed@email.com", "somePassword1")); // Registered right after the miss
+
+        // THEN
+        assertThat(userService.findUserByEmail("cached@email.com")).containsSame(cached);
+        assertThat(missing).isTrue();
+        assertThat(userService.findUserByEmail("renamed@email.com")).isPresent();
+    }
+
+    @Test
+    void updateUser_evictsOldAndNewEmail() {
+        // GIVEN
+        userService.getUserByEmail("cached@email.com", null);
+        cache.put("renamed@email.com", new Users()); // Simulate a stale entry for the new key
+        Users updatedUser = new Users("Mike", "Myers", "renamed@email.com", "somePassword1");
+
+        // WHEN
+        userService.updateUser("cached@email.com", updatedUser, null);
+
+        // THEN
+        assertThat(cache.get("cached@email.com")).isNull();
+        assertThat(cache.get("renamed@email.com")).isNull();
+        assertThat(userService.getUserByEmail("renamed@email.com", null).email()).isEqualTo("renamed@email.com");
+    }
+
+    @Test
+    void deleteUser_evictsEmail() {
+        // GIVEN
+        userService.getUserByEmail("cached@email.com", null);
+
+        // WHEN
+        userService.deleteUser("cached@email.com", null);
+
+        // THEN
+        assertThat(cache.get("cached@email.com")).isNull();
+    }
+
+    private CacheStats stats() {
+        return ((CaffeineCache) cache).getNativeCache().stats();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.userservice.service;
+
+import com.example.userservice.user.dto.UserPatch;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.repository.UserRepository;
+import com.example.userservice.user.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.userservice.service.UserServicePatchTest$RecordingStatementInspector")
+class UserServicePatchTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(new Users("Mike", "Myers", "patch@email.com", "somePassword1"));
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByEmail("patch@email.com").ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void patchUser_writesOnlyTheChangedColumn() throws Exception {
+        // WHEN
+        userService.patchUser("patch@email.com", UserPatch.from(new ObjectMapper().readTree("{\"firstName\":\"Michael\"}")), null);
+
+        // THEN
+        assertThat(updates()).singleElement()
+                .satisfies(sql -> assertThat(sql).contains("first_name").doesNotContain("last_name", "email", "password"));
+        assertThat(userRepository.findByEmail("patch@email.com"))
+                .hasValueSatisfying(user -> assertThat(user.getFirstName()).isEqualTo("Michael"));
+    }
+
+    @Test
+    void patchUser_withUnchangedValueWritesNothing() throws Exception {
+        // WHEN
+        userService.patchUser("patch@email.com", UserPatch.from(new ObjectMapper().readTree("{\"lastName\":\"Myers\"}")), null);
+
+        // THEN
+        assertThat(updates()).isEmpty();
+    }
+
+    private static List<String> updates() {
+        return RecordingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).startsWith("update"))
+                .toList();
+    }
+
+    // Records every SQL statement Hibernate prepares
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.userservice.service;
 
+import com.example.userservice.user.dto.UserPage;
+import com.example.userservice.user.dto.UserPatch;
+import com.example.userservice.user.dto.UserView;
+import com.example.userservice.user.exceptions.UserNotFoundException;
+import com.example.userservice.user.lookup.EmailBloomFilter;
 import com.example.userservice.user.model.Users;
 import com.example.userservice.user.repository.UserRepository;
+import com.example.userservice.user.security.PasswordHasher;
 import com.example.userservice.user.service.UserService;
-import jakarta.validation.Validator;
+import com.example.userservice.user.sharding.UserShardMover;
+import com.example.userservice.user.sharding.UserShards;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.coyote.BadRequestException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,8 +20,16 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
+import javax.sql.DataSource;
+
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -29,6 +45,18 @@ class UsersServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private EmailBloomFilter emailFilter; // Never rules an email out unless stubbed to
+
+    @Spy
+    private UserShards userShards = new UserShards(List.of(mock(DataSource.class))); // A single shard
+
+    @Mock
+    private UserShardMover shardMover;
+
     @InjectMocks
     private UserService underTest;
 
@@ -42,7 +70,7 @@ class UsersServiceTest {
 
     @BeforeEach
     void setUp() {
-        underTest = new UserService(userRepository);
+        underTest = new UserService(userRepository, passwordHasher, emailFilter, userShards, shardMover);
     }
 
 
@@ -55,13 +83,12 @@ class UsersServiceTest {
                 "example@email.com",
                 "somePassword1");
 
-        given(userRepository.existsByEmail(users.getEmail())).willReturn(false); // Mock repository response
-
         // WHEN
         underTest.createUser(users);
 
         // THEN
-        verify(userRepository).save(any(Users.class)); // Verify userRepository.save() was called
+        verify(userRepository).saveAndFlush(any(Users.class)); // Verify userRepository.saveAndFlush() was called
+        verify(userRepository, never()).existsByEmail(anyString()); // Verify no separate existence check round trip
     }
 
     @Test
@@ -74,9 +101,6 @@ class UsersServiceTest {
         user.setFirstName("Bruno");
         user.setLastName("De Gois");
 
-        // Mock repository to return false for the email existence check
-        when(userRepository.existsByEmail(user.getEmail())).thenReturn(false);
-
         // WHEN
         // Attempt to create the user
         String result = userService.createUser(user);
@@ -84,7 +108,7 @@ class UsersServiceTest {
         // THEN
         assertEquals("The user was created successfully", result); // Verify that the user was created successfully
 
-        verify(userRepository, times(1)).save(user); // Verify that the save method was called once with the correct user object
+        verify(userRepository, times(1)).saveAndFlush(user); // Verify that the saveAndFlush method was called once with the correct user object
     }
 
     @Test
@@ -156,6 +180,34 @@ class UsersServiceTest {
         verifyNoInteractions(userRepository);
     }
 
+    @Test
+    void createUser_storesPasswordHash() {
+        // GIVEN
+        Users user = new Users("Mike", "Myers", "example@email.com", "somePassword1");
+        given(passwordHasher.hash("somePassword1")).willReturn("hashedPassword"); // Mock hashing
+
+        // WHEN
+        underTest.createUser(user);
+
+        // THEN
+        verify(userRepository).saveAndFlush(userArgumentCaptor.capture());
+        assertThat(userArgumentCaptor.getValue().getPassword()).isEqualTo("hashedPassword"); // Verify only the hash is stored
+    }
+
+    @Test
+    void verifyPassword_checksAgainstStoredHash() {
+        // GIVEN
+        Users user = new Users("Mike", "Myers", "example@email.com", "hashedPassword");
+        given(userRepository.findByEmail("example@email.com")).willReturn(Optional.of(user));
+        given(userRepository.findByEmail("unknown@email.com")).willReturn(Optional.empty());
+        given(passwordHasher.verify("somePassword1", "hashedPassword")).willReturn(true);
+
+        // WHEN & THEN
+        assertThat(underTest.verifyPassword("example@email.com", "somePassword1")).isTrue();
+        assertThat(underTest.verifyPassword("unknown@email.com", "somePassword1")).isFalse();
+        verify(passwordHasher).verify("somePassword1", null); // Unknown users still pay for a hash comparison
+    }
+
     @Test
     void testCreateUser_InvalidEmail() {
         // GIVEN: An instance of the Users class with an invalid email and a valid password.
@@ -182,8 +234,9 @@ class UsersServiceTest {
                 existingEmail,
                 "somePassword1");
 
-        // Mock the repository response to return true when checking if the email exists
-        given(userRepository.existsByEmail(existingEmail)).willReturn(true); // Mock repository response
+        // Mock the repository to reject the insert the way the unique email index does
+        given(userRepository.saveAndFlush(users)).willThrow(new DataIntegrityViolationException(
+                "Unique index or primary key violation: \"PUBLIC.UK_USER_EMAIL_KEY_INDEX_3 ON PUBLIC.\"\"user\"\"(EMAIL_KEY)\"")); // Mock repository response
 
         // THEN
         // Verify that when attempting to create a user with an existing email, an IllegalStateException is thrown with the message "Email already exists"
@@ -192,6 +245,18 @@ class UsersServiceTest {
                 .hasMessage("Email already exists"); // Verify exception message
     }
 
+    @Test
+    void willRethrowOtherIntegrityViolations() {
+        // GIVEN
+        Users users = new Users("Mike", "Myers", "example@email.com", "somePassword1");
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("NULL not allowed for column \"LAST_NAME\"");
+        given(userRepository.saveAndFlush(users)).willThrow(violation);
+
+        // WHEN & THEN
+        // Not a taken email, so it is not reported as one
+        assertThatThrownBy(() -> underTest.createUser(users)).isSameAs(violation);
+    }
+
     @Test
     void testCreateUser_EmptyFirstNameAndLastName() {
         // GIVEN
@@ -202,16 +267,13 @@ class UsersServiceTest {
         user.setFirstName(""); // Empty first name
         user.setLastName(""); // Empty last name
 
-        // Mock repository to return false for the email existence check
-        when(userRepository.existsByEmail(user.getEmail())).thenReturn(false);
-
         // WHEN
         String result = userService.createUser(user); // Attempt to create the user
 
         // THEN
         assertEquals("The user was created successfully", result); // Verify that the user was created successfully
 
-        verify(userRepository, times(1)).save(user); // Verify that the save method was called once with the correct user object
+        verify(userRepository, times(1)).saveAndFlush(user); // Verify that the saveAndFlush method was called once with the correct user object
     }
 
     @Test
@@ -224,14 +286,14 @@ class UsersServiceTest {
                 "Myers",
                 email,
                 "somePassword");
-        given(userRepository.findByEmail(email)).willReturn(Optional.of(users));
+        given(userRepository.findViewByEmail(email)).willReturn(Optional.of(UserView.of(users)));
 
         // WHEN
-        Users foundUsers = underTest.getUserByEmail(email, null); // Call the method under test to retrieve a user by email
+        UserView foundUser = underTest.getUserByEmail(email, null); // Call the method under test to retrieve a user by email
 
         // THEN
-        assertThat(foundUsers).isEqualTo(users); // Assert that the retrieved user matches the expected user
-        verify(userRepository).findByEmail(email); // Verify that userRepository.findByEmail() was called with the correct email
+        assertThat(foundUser).isEqualTo(UserView.of(users)); // Assert that the retrieved user matches the expected user
+        verify(userRepository).findViewByEmail(email); // Verify that the lookup selected the view, not the entity
     }
 
     @Test
@@ -239,7 +301,7 @@ class UsersServiceTest {
         // GIVEN
         // Prepare test data email with no matching user
         String email = "example@email.com";
-        given(userRepository.findByEmail(email)).willReturn(Optional.empty());
+        given(userRepository.findViewByEmail(email)).willReturn(Optional.empty());
 
         // WHEN & THEN
         // Assert that calling getUserByEmail() with a non-existent email throws IllegalStateException
@@ -247,10 +309,44 @@ class UsersServiceTest {
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("User with email " + email + " does not exist");
 
-        verify(userRepository).findByEmail(email); // Verify that userRepository.findByEmail() was called with the correct email
+        verify(userRepository).findViewByEmail(email); // Verify that userRepository.findViewByEmail() was called with the correct email
     }
 
 
+    @Test
+    void listUsers_returnsNextCursorWhenMoreUsersExist() {
+        // GIVEN
+        Users first = new Users("Mike", "Myers", "first@email.com", "somePassword1");
+        first.setId(1L);
+        Users second = new Users("Mike", "Myers", "second@email.com", "somePassword1");
+        second.setId(2L);
+        given(userRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .willReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+        given(userRepository.findByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 2)))
+                .willReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 2), false));
+
+        // WHEN
+        UserPage firstPage = underTest.listUsers(null, 2);
+        UserPage lastPage = underTest.listUsers(firstPage.nextCursor(), 2); // Follow the cursor to the next page
+
+        // THEN
+        assertThat(firstPage.users()).isEqualTo(List.of(first, second));
+        assertThat(firstPage.nextCursor()).isNotNull();
+        assertThat(lastPage.nextCursor()).isNull(); // No cursor on the last page
+    }
+
+    @Test
+    void listUsers_rejectsInvalidCursorAndSize() {
+        assertThatThrownBy(() -> underTest.listUsers("not a cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> underTest.listUsers(null, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Page size must be between 1 and 1000");
+
+        verifyNoInteractions(userRepository);
+    }
+
     // Focuses on verifying that the necessary repository methods are called during the execution
     @Test
     void updateUser_Success() {
@@ -262,12 +358,29 @@ class UsersServiceTest {
         given(userRepository.existsByEmail("new@example.com")).willReturn(false); // Mock check for new email not being taken
 
         // WHEN
-        userService.updateUser(email, updatedUser); // Call the updateUser method with the existing email and updated user details
+        userService.updateUser(email, updatedUser, null); // Call the updateUser method with the existing email and updated user details
 
         // THEN
         verify(userRepository).findByEmail(email); // Verify that the findByEmail method is called with the existing email
         verify(userRepository).existsByEmail("new@example.com"); // Verify that the existsByEmail method is called with the new email
-        verify(userRepository).save(existingUser); // Verify that the save method is called with the updated user details
+        verify(userRepository, never()).save(any(Users.class)); // The managed user is flushed on commit, without a redundant save
+    }
+
+    @Test
+    void updateUser_allowsChangingOnlyTheCaseOfTheEmail() {
+        // GIVEN
+        Users existingUser = new Users("Mike", "Myers", "Example@Email.com", "password123");
+        Users updatedUser = new Users();
+        updatedUser.setEmail("example@email.com");
+        given(userRepository.findByEmail("Example@Email.com")).willReturn(Optional.of(existingUser));
+
+        // WHEN
+        userService.updateUser("Example@Email.com", updatedUser, null);
+
+        // THEN
+        // Same normalized key: the user's own row must not count as another account with that email
+        assertEquals("example@email.com", existingUser.getEmail());
+        verify(userRepository, never()).existsByEmail(anyString());
     }
 
     // Focus on level of details verifying that the fields of the existing user are updated correctly and saved
@@ -288,17 +401,18 @@ class UsersServiceTest {
 
         // Mock the behavior of the user repository:
         when(userRepository.findByEmail(existingUser.getEmail())).thenReturn(Optional.of(existingUser)); // When the repository finds a user by the existing email, return the existing user
+        when(passwordHasher.hash(updatedUser.getPassword())).thenReturn("hashedNewPass123"); // Hash the new password
         when(userRepository.existsByEmail(updatedUser.getEmail())).thenReturn(false); // When checking if the new email already exists, return false (meaning the email does not exist)
 
         // WHEN
-        userService.updateUser(existingUser.getEmail(), updatedUser); // Call the updateUser method of the UserService with the existing user's email and the new user details
+        userService.updateUser(existingUser.getEmail(), updatedUser, null); // Call the updateUser method of the UserService with the existing user's email and the new user details
 
         // THEN
         assertEquals(updatedUser.getEmail(), existingUser.getEmail()); // Assert that the existing user's email has been updated to the new email
-        assertEquals(updatedUser.getPassword(), existingUser.getPassword()); // Assert that the existing user's password has been updated to the new password
+        assertEquals("hashedNewPass123", existingUser.getPassword()); // Assert that the existing user's password has been updated to the hash of the new password
         assertEquals(updatedUser.getFirstName(), existingUser.getFirstName()); // Assert that the existing user's first name has been updated to the new first name
         assertEquals(updatedUser.getLastName(), existingUser.getLastName()); // Assert that the existing user's last name has been updated to the new last name
-        verify(userRepository, times(1)).save(existingUser); // Verify that the repository's save method was called exactly once to save the updated user
+        verify(userRepository, never()).save(any(Users.class)); // The managed user is flushed on commit, without a redundant save
     }
 
     @Test
@@ -309,7 +423,7 @@ class UsersServiceTest {
         given(userRepository.findByEmail(email)).willReturn(Optional.empty());
 
         // WHEN & THEN
-        assertThatThrownBy(() -> userService.updateUser(email, updatedUser))
+        assertThatThrownBy(() -> userService.updateUser(email, updatedUser, null))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("User with email " + email + " does not exist");
 
@@ -329,7 +443,7 @@ class UsersServiceTest {
 
         // WHEN & THEN
         // Assert that updating the user with an existing email throws an IllegalArgumentException with a relevant message
-        assertThatThrownBy(() -> userService.updateUser(email, updatedUser))
+        assertThatThrownBy(() -> userService.updateUser(email, updatedUser, null))
                 .isInstanceOf(IllegalArgumentException.class) // Expect IllegalArgumentException
                 .hasMessageContaining("Email already exists"); // Check the exception message
 
@@ -347,7 +461,7 @@ class UsersServiceTest {
         given(userRepository.findByEmail(email)).willReturn(Optional.of(existingUser));
 
         // WHEN & THEN
-        assertThatThrownBy(() -> userService.updateUser(email, updatedUser))
+        assertThatThrownBy(() -> userService.updateUser(email, updatedUser, null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Password must be between 8 and 20 characters");
 
@@ -364,7 +478,7 @@ class UsersServiceTest {
         given(userRepository.findByEmail(email)).willReturn(Optional.of(existingUser));
 
         // WHEN & THEN
-        assertThatThrownBy(() -> userService.updateUser(email, updatedUser))
+        assertThatThrownBy(() -> userService.updateUser(email, updatedUser, null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Password must be between 8 and 20 characters");
 
@@ -381,7 +495,7 @@ class UsersServiceTest {
         given(userRepository.findByEmail(email)).willReturn(Optional.of(existingUser));
 
         // WHEN & THEN
-        assertThatThrownBy(() -> userService.updateUser(email, updatedUser))
+        assertThatThrownBy(() -> userService.updateUser(email, updatedUser, null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("First name must be less than 50 characters long");
 
@@ -398,7 +512,7 @@ class UsersServiceTest {
         given(userRepository.findByEmail(email)).willReturn(Optional.of(existingUser));
 
         // WHEN & THEN
-        assertThatThrownBy(() -> userService.updateUser(email, updatedUser))
+        assertThatThrownBy(() -> userService.updateUser(email, updatedUser, null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Last name must be less than 100 characters long");
 
@@ -416,10 +530,10 @@ class UsersServiceTest {
         given(userRepository.findByEmail(email)).willReturn(Optional.of(existingUser)); // Mock the repository to return the existing user when the email is queried
 
         // WHEN
-        userService.updateUser(email, updatedUser); // Call the updateUser method to update the user details
+        userService.updateUser(email, updatedUser, null); // Call the updateUser method to update the user details
 
         // THEN
-        verify(userRepository).save(existingUser); // Verify that the save method was called once with the updated user details
+        assertEquals("Mike", existingUser.getFirstName()); // Verify that the first name was updated on the managed user
     }
 
     @Test
@@ -432,10 +546,10 @@ class UsersServiceTest {
         given(userRepository.findByEmail(email)).willReturn(Optional.of(existingUser)); // Mock the repository to return the existing user when the email is queried
 
         // WHEN
-        userService.updateUser(email, updatedUser); // The service is called to update the user's details
+        userService.updateUser(email, updatedUser, null); // The service is called to update the user's details
 
         // THEN
-        verify(userRepository).save(existingUser); // Verify that the save method was called once with the updated user details
+        assertEquals("Myers", existingUser.getLastName()); // Verify that the last name was updated on the managed user
     }
 
     @Test
@@ -448,10 +562,11 @@ class UsersServiceTest {
         given(userRepository.findByEmail(email)).willReturn(Optional.of(existingUser)); // Mock the repository to return the existing user when the email is queried
 
         // WHEN
-        userService.updateUser(email, updatedUser); // Call the updateUser method to update the user details
+        userService.updateUser(email, updatedUser, null); // Call the updateUser method to update the user details
 
         // THEN
-        verify(userRepository).save(existingUser); // Verify that the save method was called once with the updated user details
+        assertEquals("Mike", existingUser.getFirstName()); // Verify that both names were updated on the managed user
+        assertEquals("Myers", existingUser.getLastName());
     }
 
     @Test
@@ -466,7 +581,7 @@ class UsersServiceTest {
 
         // WHEN & THEN
         IllegalArgumentException thrownException = assertThrows(IllegalArgumentException.class, () -> {
-            userService.updateUser(email, updatedUser);
+            userService.updateUser(email, updatedUser, null);
         });
 
         assertEquals("No fields updated", thrownException.getMessage()); // Verify the exception message
@@ -475,41 +590,222 @@ class UsersServiceTest {
     }
 
 
+    @Test
+    void updateUser_StaleIfMatch() {
+        // GIVEN
+        String email = "example@email.com";
+        Users existingUser = new Users("Mike", "Myers", email, "hashedPassword");
+        existingUser.setId(1L);
+        existingUser.setVersion(3L); // Someone else updated the user since the client read version 2
+        given(userRepository.findByEmail(email)).willReturn(Optional.of(existingUser));
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> userService.updateUser(email, new Users("Michael", null, null, null), "\"1.2\""))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(existingUser.getFirstName()).isEqualTo("Mike"); // Nothing was changed
+    }
+
+    @Test
+    void updateUser_MatchingIfMatch() {
+        // GIVEN
+        String email = "example@email.com";
+        Users existingUser = new Users("Mike", "Myers", email, "hashedPassword");
+        existingUser.setId(1L);
+        existingUser.setVersion(3L);
+        given(userRepository.findByEmail(email)).willReturn(Optional.of(existingUser));
+
+        // WHEN
+        userService.updateUser(email, new Users("Michael", null, null, null), "W/\"1.2\", \"1.3\""); // Weak tags never match, the strong one does
+
+        // THEN
+        assertThat(existingUser.getFirstName()).isEqualTo("Michael");
+    }
+
+    @Test
+    void deleteUser_WithIfMatchDeletesOnlyThatVersion() {
+        // GIVEN
+        String email = "example@email.com";
+        Users existingUser = new Users("Mike", "Myers", email, "hashedPassword");
+        existingUser.setId(1L);
+        existingUser.setVersion(3L);
+        given(userRepository.findByEmail(email)).willReturn(Optional.of(existingUser));
+        given(userRepository.deleteByEmailAndVersion(email, 3L)).willReturn(0); // Changed between the check and the delete
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> userService.deleteUser(email, "\"1.3\""))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(userRepository, never()).deleteByEmail(anyString());
+    }
+
+    @Test
+    void getUserByEmail_definiteMissSkipsDatabase() {
+        // GIVEN
+        given(emailFilter.isDefinitelyAbsent("unknown@email.com")).willReturn(true); // The filter rules the email out
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> underTest.getUserByEmail("unknown@email.com", "User with email unknown@email.com does not exist"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("User with email unknown@email.com does not exist");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void findUserByEmail_missIsEmptyWithoutException() {
+        // GIVEN
+        given(emailFilter.isDefinitelyAbsent("unknown@email.com")).willReturn(true);
+        given(emailFilter.isDefinitelyAbsent("maybe@email.com")).willReturn(false);
+        given(userRepository.findViewByEmail("maybe@email.com")).willReturn(Optional.empty()); // A false positive of the filter
+
+        // WHEN & THEN
+        assertThat(underTest.findUserByEmail("unknown@email.com")).isEmpty();
+        assertThat(underTest.findUserByEmail("maybe@email.com")).isEmpty();
+        verify(userRepository, never()).findViewByEmail("unknown@email.com");
+    }
+
+    @Test
+    void getUserByEmail_notFoundCarriesNoStackTrace() {
+        // GIVEN
+        given(emailFilter.isDefinitelyAbsent("unknown@email.com")).willReturn(true);
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> underTest.getUserByEmail("unknown@email.com", null))
+                .isInstanceOf(UserNotFoundException.class)
+                .hasMessage("User with email unknown@email.com does not exist") // The default message when none is given
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+    }
+
+    @Test
+    void patchUser_updatesOnlySuppliedFields() throws Exception {
+        // GIVEN
+        Users existingUser = new Users("Mike", "Myers", "example@email.com", "hashedPassword");
+        given(userRepository.findByEmail("example@email.com")).willReturn(Optional.of(existingUser));
+        UserPatch patch = UserPatch.from(new ObjectMapper().readTree("{\"firstName\":\"Michael\",\"lastName\":null}"));
+
+        // WHEN
+        underTest.patchUser("example@email.com", patch, null);
+
+        // THEN
+        assertThat(existingUser.getFirstName()).isEqualTo("Michael"); // Supplied field is updated
+        assertThat(existingUser.getLastName()).isNull(); // Null removes the field
+        assertThat(existingUser.getEmail()).isEqualTo("example@email.com"); // Absent fields are left alone
+        assertThat(existingUser.getPassword()).isEqualTo("hashedPassword");
+        verify(userRepository, never()).save(any(Users.class)); // The managed user is flushed on commit
+        verifyNoInteractions(passwordHasher);
+    }
+
+    @Test
+    void patchUser_rejectsInvalidFieldBeforeLoadingUser() throws Exception {
+        // GIVEN
+        UserPatch patch = UserPatch.from(new ObjectMapper().readTree("{\"password\":\"short\"}"));
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> underTest.patchUser("example@email.com", patch, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Password must be between 8 and 20 characters");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void patchUser_rejectsRemovingRequiredField() throws Exception {
+        // GIVEN
+        UserPatch patch = UserPatch.from(new ObjectMapper().readTree("{\"email\":null}"));
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> underTest.patchUser("example@email.com", patch, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Email is required");
+    }
+
+    @Test
+    void patchUser_rejectsTakenEmail() throws Exception {
+        // GIVEN
+        Users existingUser = new Users("Mike", "Myers", "example@email.com", "hashedPassword");
+        given(userRepository.findByEmail("example@email.com")).willReturn(Optional.of(existingUser));
+        given(userRepository.existsByEmail("taken@email.com")).willReturn(true);
+        UserPatch patch = UserPatch.from(new ObjectMapper().readTree("{\"email\":\"taken@email.com\"}"));
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> underTest.patchUser("example@email.com", patch, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Email already exists");
+        assertThat(existingUser.getEmail()).isEqualTo("example@email.com");
+    }
+
+    @Test
+    void patchUser_checksTakenEmailOnDatabaseWhateverTheFilterSays() throws Exception {
+        // GIVEN
+        Users existingUser = new Users("Mike", "Myers", "example@email.com", "hashedPassword");
+        given(userRepository.findByEmail("example@email.com")).willReturn(Optional.of(existingUser));
+        lenient().when(emailFilter.isDefinitelyAbsent("taken@email.com")).thenReturn(true); // Written through another node
+        given(userRepository.existsByEmail("taken@email.com")).willReturn(true);
+        UserPatch patch = UserPatch.from(new ObjectMapper().readTree("{\"email\":\"taken@email.com\"}"));
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> underTest.patchUser("example@email.com", patch, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Email already exists");
+        assertThat(existingUser.getEmail()).isEqualTo("example@email.com");
+    }
+
+    @Test
+    void patchUser_allowsChangingOnlyTheCaseOfTheEmail() throws Exception {
+        // GIVEN
+        Users existingUser = new Users("Mike", "Myers", "Example@Email.com", "hashedPassword");
+        given(userRepository.findByEmail("Example@Email.com")).willReturn(Optional.of(existingUser));
+        UserPatch patch = UserPatch.from(new ObjectMapper().readTree("{\"email\":\"example@email.com\"}"));
+
+        // WHEN
+        underTest.patchUser("Example@Email.com", patch, null);
+
+        // THEN
+        // Same normalized key: the user's own row must not count as another account with that email
+        assertThat(existingUser.getEmail()).isEqualTo("example@email.com");
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void patchUser_userNotFound() throws Exception {
+        // GIVEN
+        given(userRepository.findByEmail("unknown@email.com")).willReturn(Optional.empty());
+        UserPatch patch = UserPatch.from(new ObjectMapper().readTree("{\"firstName\":\"Michael\"}"));
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> underTest.patchUser("unknown@email.com", patch, null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("User with email unknown@email.com does not exist");
+    }
+
     @Test
     void deleteUserNotFound() {
         // GIVEN
         String email = "example@email.com";
 
-        // Mocking scenario where user does not exist
-        given(userRepository.findByEmail(email)).willReturn(Optional.empty());
+        // Mocking scenario where user does not exist, so no row is deleted
+        given(userRepository.deleteByEmail(email)).willReturn(0);
 
         // WHEN and THEN (using AssertJ for fluent assertion)
-        assertThatThrownBy(() -> userService.deleteUser(email))
+        assertThatThrownBy(() -> userService.deleteUser(email, null))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("User with email " + email + " does not exist");
 
-        verify(userRepository).findByEmail(email); // Verify that userRepository.findByEmail() was called with the correct email
-        verify(userRepository, never()).delete(any(Users.class)); // Verify that userRepository.delete() was never called
+        verify(userRepository).deleteByEmail(email); // Verify that userRepository.deleteByEmail() was called with the correct email
+        verify(userRepository, never()).findByEmail(anyString()); // The user is never loaded
     }
 
     @Test
     void deleteUserSuccess() {
         // GIVEN
         String email = "example@email.com";
-        Users user = new Users(
-                "Mike",
-                "Myers",
-                email,
-                "somePassword1");
 
-        // Mocking scenario where user exists
-        given(userRepository.findByEmail(email)).willReturn(Optional.of(user));
+        // Mocking scenario where user exists and one row is deleted
+        given(userRepository.deleteByEmail(email)).willReturn(1);
 
         // WHEN
-        userService.deleteUser(email);
+        userService.deleteUser(email, null);
 
         // THEN
-        verify(userRepository).findByEmail(email); // Verify that userRepository.findByEmail() was called with the correct email
-        verify(userRepository).delete(user); // Verify that userRepository.delete() was called with the correct user
+        verify(userRepository).deleteByEmail(email); // Verify that userRepository.deleteByEmail() was called with the correct email
+        verify(userRepository, never()).findByEmail(anyString()); // The user is never loaded
+        verify(userRepository, never()).delete(any(Users.class)); // No entity delete
     }
 }
\ No newline at end of file
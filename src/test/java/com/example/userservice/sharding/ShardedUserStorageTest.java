@@ -0,0 +1,200 @@
+package com.example.userservice.sharding;
+
+import com.example.userservice.user.config.CacheConfig;
+import com.example.userservice.user.dto.UserPage;
+import com.example.userservice.user.dto.UserView;
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.service.UserExportService;
+import com.example.userservice.user.service.UserService;
+import com.example.userservice.user.sharding.UserResharder;
+import com.example.userservice.user.sharding.UserShards;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Three shards on separate in-memory H2 databases
+@SpringBootTest(properties = {
+        "userservice.sharding.enabled=true",
+        "userservice.sharding.shards[0].jdbc-url=jdbc:h2:mem:sharded-test-0",
+        "userservice.sharding.shards[1].jdbc-url=jdbc:h2:mem:sharded-test-1",
+        "userservice.sharding.shards[2].jdbc-url=jdbc:h2:mem:sharded-test-2"
+})
+class ShardedUserStorageTest {
+
+    private static final int USERS = 30;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserShards userShards;
+
+    @Autowired
+    private UserResharder userResharder;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        for (int shard = 0; shard < userShards.count(); shard++) {
+            jdbc(shard).update("delete from \"user\" where email_key like '%@shard.test'");
+        }
+        cacheManager.getCache(CacheConfig.USERS_BY_EMAIL).clear();
+    }
+
+    @Test
+    void createUser_storesEachUserOnlyOnTheShardOfItsEmail() {
+        // GIVEN
+        List<String> emails = createUsers();
+
+        // WHEN
+        // THEN
+        Set<Integer> usedShards = new HashSet<>();
+        for (String email : emails) {
+            int shard = userShards.shardOf(email);
+            usedShards.add(shard);
+            for (int other = 0; other < userShards.count(); other++) {
+                assertThat(countOn(other, email)).as("%s on shard %d", email, other).isEqualTo(other == shard ? 1 : 0);
+            }
+            assertThat(userService.getUserByEmail(email, null).email()).isEqualTo(email);
+        }
+        assertThat(usedShards).hasSize(userShards.count());
+    }
+
+    @Test
+    void listUsersAndExport_mergeEveryShardInIdOrder() throws Exception {
+        // GIVEN
+        int total = createUsers().size() + 2; // Plus the seeded users
+
+        // WHEN
+        List<Long> listedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserPage page = userService.listUsers(cursor, 7);
+            page.users().forEach(user -> listedIds.add(user.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = userExportService.exportUsers(out);
+
+        // THEN
+        assertThat(listedIds).hasSize(total).isSorted().doesNotHaveDuplicates();
+        assertThat(exported).isEqualTo(total);
+        List<String> emails = Arrays.stream(out.toString(StandardCharsets.UTF_8).split("\n"))
+                .map(line -> readEmail(line))
+                .toList();
+        assertThat(emails).hasSize(total).contains("shard0@shard.test", "hedlund.thomas@email.com");
+    }
+
+    @Test
+    void updateUser_movesUserToTheShardOfItsNewEmail() {
+        // GIVEN
+        userService.createUser(new Users("Mike", "Myers", "mover@shard.test", "somePassword1"));
+        UserView before = userService.getUserByEmail("mover@shard.test", null);
+        String newEmail = emailOnAnotherShard("mover@shard.test");
+
+        // WHEN
+        userService.updateUser("mover@shard.test", new Users("Michael", null, newEmail, null), null);
+
+        // THEN
+        assertThat(countOn(userShards.shardOf("mover@shard.test"), "mover@shard.test")).isZero();
+        UserView after = userService.getUserByEmail(newEmail, null);
+        assertThat(after.id()).isEqualTo(before.id());
+        assertThat(after.firstName()).isEqualTo("Michael");
+        assertThat(after.version()).isEqualTo(before.version() + 1);
+        assertThat(userService.verifyPassword(newEmail, "somePassword1")).isTrue();
+        assertThatThrownBy(() -> userService.getUserByEmail("mover@shard.test", null))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void reshard_movesMisplacedUsersAndDropsTheStaleHalfOfAnInterruptedMove() {
+        // GIVEN
+        int home = userShards.shardOf("misplaced@shard.test");
+        int elsewhere = (home + 1) % userShards.count();
+        insertOn(elsewhere, 900_001L, "misplaced@shard.test", 0); // As if the shard list had changed
+
+        int newHome = userShards.shardOf("renamed@shard.test");
+        int oldHome = userShards.shardOf(emailOnAnotherShard("renamed@shard.test"));
+        insertOn(oldHome, 900_002L, emailOnShard(oldHome), 3); // A move that crashed between its two commits
+        insertOn(newHome, 900_002L, "renamed@shard.test", 4);
+
+        // WHEN
+        UserResharder.ReshardReport report = userResharder.reshard();
+
+        // THEN
+        assertThat(report.moved()).isEqualTo(1);
+        assertThat(report.duplicatesRemoved()).isEqualTo(1);
+        assertThat(countOn(home, "misplaced@shard.test")).isEqualTo(1);
+        assertThat(countOn(elsewhere, "misplaced@shard.test")).isZero();
+        assertThat(jdbc(oldHome).queryForObject("select count(*) from \"user\" where id = 900002", Integer.class)).isZero();
+        assertThat(countOn(newHome, "renamed@shard.test")).isEqualTo(1);
+    }
+
+    private List<String> createUsers() {
+        List<String> emails = IntStream.range(0, USERS).mapToObj(i -> "shard" + i + "@shard.test").toList();
+        emails.forEach(email -> userService.createUser(new Users("Shard", "User", email, "somePassword1")));
+        return emails;
+    }
+
+    private String emailOnAnotherShard(String email) {
+        int shard = userShards.shardOf(email);
+        return IntStream.range(0, 1000)
+                .mapToObj(i -> "moved" + i + "@shard.test")
+                .filter(candidate -> userShards.shardOf(candidate) != shard)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private String emailOnShard(int shard) {
+        return IntStream.range(0, 1000)
+                .mapToObj(i -> "stale" + i + "@shard.test")
+                .filter(candidate -> userShards.shardOf(candidate) == shard)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private int countOn(int shard, String email) {
+        return jdbc(shard).queryForObject("select count(*) from \"user\" where email_key = ?", Integer.class, email);
+    }
+
+    private void insertOn(int shard, long id, String email, long version) {
+        jdbc(shard).update("insert into \"user\" (id, email, email_key, password, first_name, last_name, version) values (?, ?, ?, ?, ?, ?, ?)",
+                id, email, email, "somePassword1", "Re", "Shard", version);
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(userShards.dataSource(shard));
+    }
+
+    private String readEmail(String line) {
+        try {
+            return objectMapper.readTree(line).get("email").asText();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.userservice.validation;
+
+import com.example.userservice.user.model.Users;
+import com.example.userservice.user.validation.UserValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserValidatorTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "example@email.com",
+            "hedlund.thomas@email.com",
+            "first_last+tag@sub.domain.co",
+            "a-b@my-host.example.museum"
+    })
+    void isValidEmail_acceptsWellFormedAddresses(String email) {
+        assertThat(UserValidator.isValidEmail(email)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "invalidemail",
+            "@email.com",
+            "example@",
+            "example@email",
+            "example@email.c",
+            "example@email.c0m",
+            ".example@email.com",
+            "example.@email.com",
+            "exa..mple@email.com",
+            "example@-email.com",
+            "example@email-.com",
+            "example@email..com",
+            "exam ple@email.com",
+            "example@email.com."
+    })
+    void isValidEmail_rejectsMalformedAddresses(String email) {
+        assertThat(UserValidator.isValidEmail(email)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "john..doe@x.com", // Accepted by the format rule of earlier releases
+            "first@my_host.com",
+            "first@email.c0m",
+            "not-an-email"
+    })
+    void validateLookupEmail_acceptsAnythingThatFitsTheColumn(String email) {
+        assertThat(UserValidator.isValidEmail(email)).isFalse();
+        assertThat(UserValidator.validateLookupEmail(email)).isNull();
+    }
+
+    @Test
+    void validateLookupEmail_rejectsEmailsTooLongToBeStored() {
+        assertThat(UserValidator.validateLookupEmail("e".repeat(95) + "@x.com"))
+                .isEqualTo("Email must be less than 100 characters long");
+    }
+
+    @Test
+    void validateNewUser_returnsFirstErrorInFieldOrder() {
+        assertThat(UserValidator.validateNewUser(new Users("Mike", "Myers", null, null)))
+                .isEqualTo("Email is required");
+        assertThat(UserValidator.validateNewUser(new Users("Mike", "Myers", "e".repeat(95) + "@x.com", "somePassword1")))
+                .isEqualTo("Email must be less than 100 characters long");
+        assertThat(UserValidator.validateNewUser(new Users("Mike", "Myers", "example@email.com", "short")))
+                .isEqualTo("Password must be between 8 and 20 characters");
+        assertThat(UserValidator.validateNewUser(new Users("Mike2", "Myers", "example@email.com", "somePassword1")))
+                .isEqualTo("First name must contain only letters");
+        assertThat(UserValidator.validateNewUser(new Users("Mike", "M".repeat(101), "example@email.com", "somePassword1")))
+                .isEqualTo("Last name must be less than 100 characters long");
+        assertThat(UserValidator.validateNewUser(new Users("Mike", null, "example@email.com", "somePassword1")))
+                .isNull();
+    }
+}